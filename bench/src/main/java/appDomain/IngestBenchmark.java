@@ -0,0 +1,69 @@
+package appDomain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of WordTracker.processFiles over a directory of copies of
+ * res/textfile.txt, by worker thread count. Run it with -p threads=... on a
+ * machine with at least that many cores to see the scaling.
+ * <p>
+ * Each tracker opens its repository in a temporary directory rather than in
+ * ./repository, which takes the package-private WordTracker constructor and
+ * so the appDomain package.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+	@Param("res/textfile.txt")
+	public String file;
+
+	@Param("200")
+	public int copies;
+
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private Path directory;
+	private Path corpus;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("ingest");
+		corpus = Files.createDirectory(directory.resolve("corpus"));
+		Path source = Paths.get(file);
+		for (int i = 0; i < copies; i++) {
+			Files.copy(source, corpus.resolve(String.format("f%04d.txt", i)));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Benchmark
+	public WordTracker processFiles() {
+		// Nothing is saved, so the repository directory stays empty.
+		WordTracker tracker = new WordTracker(false, directory.resolve("repository"));
+		tracker.processFiles(Collections.singletonList(corpus.toString()), threads);
+		return tracker;
+	}
+}
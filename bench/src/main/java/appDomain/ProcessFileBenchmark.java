@@ -0,0 +1,85 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Indexing throughput of WordTracker.processFile, in megabytes of text per
+ * second, on one file made of copies of res/textfile.txt that adds up to about
+ * <code>megabytes</code> MB. The rate is reported as the megabytes counter.
+ * <p>
+ * Each tracker opens its repository in a temporary directory rather than in
+ * ./repository, which takes the package-private WordTracker constructor and
+ * so the appDomain package.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessFileBenchmark {
+
+	@Param("res/textfile.txt")
+	public String file;
+
+	@Param("16")
+	public int megabytes;
+
+	private Path directory;
+	private Path corpus;
+	private double size;
+
+	/**
+	 * Counts the megabytes indexed; JMH reports the count per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Indexed {
+		public double megabytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			megabytes = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		byte[] text = Files.readAllBytes(Paths.get(file));
+		directory = Files.createTempDirectory("process");
+		corpus = directory.resolve("corpus.txt");
+		try (OutputStream out = Files.newOutputStream(corpus)) {
+			for (long written = 0; written < megabytes * 1000000L; written += text.length) {
+				out.write(text);
+			}
+		}
+		size = Files.size(corpus) / 1e6;
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Benchmark
+	public WordTracker processFile(Indexed indexed) {
+		// Nothing is saved, so the repository directory stays empty.
+		WordTracker tracker = new WordTracker(false, directory.resolve("repository"));
+		tracker.processFile(corpus.toString());
+		indexed.megabytes += size;
+		return tracker;
+	}
+}
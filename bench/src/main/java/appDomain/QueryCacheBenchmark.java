@@ -0,0 +1,100 @@
+package appDomain;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+import benchmarks.Keys;
+
+/**
+ * Single-word queries drawn from a Zipf-distributed trace, with the lookup
+ * cache of <code>cache</code> words or without one. The repository holds
+ * <code>words</code> words saved in <code>segments</code> segments, each word
+ * once in every segment, so a lookup that misses the cache searches every
+ * segment. Replies are written in -pf format and thrown away.
+ * <p>
+ * This benchmark is in the appDomain package because the WordTracker
+ * constructor that takes a repository directory, and queries into a report
+ * writer, are package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryCacheBenchmark {
+
+	@Param("200000")
+	public int words;
+
+	@Param("4")
+	public int segments;
+
+	@Param({"0.8", "1.2"})
+	public double skew;
+
+	@Param({"0", "4096"})
+	public int cache;
+
+	private static final int TRACE_LENGTH = 1 << 16;
+
+	private Path directory;
+	private WordTracker tracker;
+	private String[] trace;
+	private ReportWriter report;
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("query");
+		tracker = new WordTracker(false, directory.resolve("repository"));
+		for (int segment = 0; segment < segments; segment++) {
+			Path corpus = directory.resolve("corpus" + segment + ".txt");
+			String[] shuffled = Keys.shuffled(words, segment);
+			try (BufferedWriter out = Files.newBufferedWriter(corpus, StandardCharsets.US_ASCII)) {
+				for (int i = 0; i < words; i++) {
+					out.write(shuffled[i]);
+					out.write(i % 10 == 9 ? '\n' : ' ');
+				}
+			}
+			tracker.processFiles(Collections.singletonList(corpus.toString()), 1);
+			tracker.saveRepository();
+		}
+		tracker.setLookupCacheCapacity(cache);
+		trace = Keys.zipf(Keys.shuffled(words, 42), TRACE_LENGTH, skew, 7);
+		report = new ReportWriter(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		});
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		System.out.printf("%n%d hits, %d misses%n", tracker.getLookupCacheHits(), tracker.getLookupCacheMisses());
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Benchmark
+	public void query() throws IOException {
+		tracker.query(trace[next++ & (TRACE_LENGTH - 1)], "-pf", report, 1);
+	}
+}
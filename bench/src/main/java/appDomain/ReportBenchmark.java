@@ -0,0 +1,89 @@
+package appDomain;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Time to write a report of an index holding <code>postings</code>
+ * occurrences, for each report format. The index is built once from a
+ * generated text of words drawn from a Zipf-like vocabulary, ten to a line,
+ * and the report is written to a temporary file. Run with -prof gc to see the
+ * allocation per report, and with -p threads=... on a machine with at least
+ * that many cores to see parallel formatting scale.
+ * <p>
+ * The tracker keeps its repository in a temporary directory rather than in
+ * ./repository, so the report holds only the generated text. That takes the
+ * package-private WordTracker constructor, hence the appDomain package.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+	@Param("10000000")
+	public int postings;
+
+	@Param("50000")
+	public int vocabulary;
+
+	@Param({"-pf", "-pl", "-po"})
+	public String option;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private Path directory;
+	private Path corpus;
+	private Path report;
+	private WordTracker tracker;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("report");
+		corpus = directory.resolve("corpus.txt");
+		report = directory.resolve("report.txt");
+		String[] words = new String[vocabulary];
+		for (int i = 0; i < vocabulary; i++) {
+			words[i] = "w" + Integer.toString(i, 36);
+		}
+		Random random = new Random(42);
+		try (BufferedWriter out = Files.newBufferedWriter(corpus, StandardCharsets.US_ASCII)) {
+			for (int i = 0; i < postings; i++) {
+				// The square skews the draw toward the start of the vocabulary.
+				double draw = random.nextDouble();
+				out.write(words[(int) (draw * draw * vocabulary)]);
+				out.write(i % 10 == 9 ? '\n' : ' ');
+			}
+		}
+		// Nothing is saved, so the repository directory stays empty.
+		tracker = new WordTracker(false, directory.resolve("repository"));
+		tracker.processFiles(Collections.singletonList(corpus.toString()), 1);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Benchmark
+	public void generateReport() {
+		tracker.generateReport(option, report.toString(), threads);
+	}
+}
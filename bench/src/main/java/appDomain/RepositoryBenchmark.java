@@ -0,0 +1,141 @@
+package appDomain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import implementations.AVLTree;
+import implementations.BSTreeIterator;
+import implementations.BSTreeNode;
+
+/**
+ * Saving and loading a repository of <code>words</code> words, each found on
+ * a few lines of a few files, in the binary repository format and in the Java
+ * serialization it replaced: the word tree in one stream and a map from word
+ * to file to lines in another, as repository.ser and repository.ser.meta were
+ * written. Loading the binary format decodes every word and its postings,
+ * which is more than a run does, since reports decode words as they reach
+ * them.
+ * <p>
+ * This benchmark is in the appDomain package because the repository classes
+ * are package-private.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int words;
+
+	@Param({"serialized", "binary"})
+	public String format;
+
+	private static final int FILES = 20;
+
+	private List<String> fileNames;
+	private AVLTree<String> tree;
+	private AVLTree<String> wordTree; // the old format's tree held only words
+	private HashMap<String, Map<String, List<Integer>>> metadata;
+	private Path directory;
+
+	@Setup
+	public void setUp() throws IOException {
+		fileNames = new ArrayList<>();
+		for (int i = 0; i < FILES; i++) {
+			fileNames.add("dir/file" + i + ".txt");
+		}
+		tree = new AVLTree<String>();
+		wordTree = new AVLTree<String>();
+		metadata = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < words; i++) {
+			String word = "w" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36);
+			BSTreeNode<String> node = tree.addOrGet(word);
+			Postings postings = node.getValue() == null ? new Postings() : (Postings) node.getValue();
+			node.setValue(postings);
+			wordTree.add(word);
+			Map<String, List<Integer>> files = metadata.get(word);
+			if (files == null) {
+				metadata.put(word, files = new HashMap<>());
+			}
+			int file = random.nextInt(FILES);
+			List<Integer> lines = files.get(fileNames.get(file));
+			if (lines == null) {
+				files.put(fileNames.get(file), lines = new ArrayList<>());
+			}
+			for (int line = random.nextInt(1000), count = 1 + random.nextInt(4); count > 0; count--) {
+				postings.add(file, line);
+				lines.add(line);
+				line += 1 + random.nextInt(50);
+			}
+		}
+		directory = Files.createTempDirectory("repository");
+		save();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		for (String name : new String[] {"repository.ser", "repository.ser.meta", "base.idx", "base.idx.tmp"}) {
+			Files.deleteIfExists(directory.resolve(name));
+		}
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	public void save() throws IOException {
+		if (format.equals("serialized")) {
+			try (ObjectOutputStream treeOut = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve("repository.ser"))));
+					ObjectOutputStream metaOut = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve("repository.ser.meta"))))) {
+				treeOut.writeObject(wordTree);
+				metaOut.writeObject(metadata);
+			}
+			return;
+		}
+		try (RepositoryWriter writer = new RepositoryWriter(directory.resolve("base.idx"), fileNames, new BitSet(), 1)) {
+			BSTreeIterator<String> it = tree.inorderIterator();
+			while (it.hasNext()) {
+				BSTreeNode<String> node = it.nextNode();
+				writer.write(node.getElement(), (Postings) node.getValue());
+			}
+			writer.commit();
+		}
+	}
+
+	@Benchmark
+	public int load() throws IOException, ClassNotFoundException {
+		if (format.equals("serialized")) {
+			try (ObjectInputStream treeIn = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve("repository.ser"))));
+					ObjectInputStream metaIn = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve("repository.ser.meta"))))) {
+				AVLTree<?> loaded = (AVLTree<?>) treeIn.readObject();
+				Map<?, ?> loadedMetadata = (Map<?, ?>) metaIn.readObject();
+				return loaded.size() + loadedMetadata.size();
+			}
+		}
+		IndexCursor cursor = RepositoryIndex.open(directory.resolve("base.idx")).cursor();
+		int lines = 0;
+		while (cursor.next()) {
+			Postings postings = cursor.postings();
+			for (int i = 0; i < postings.fileCount(); i++) {
+				lines += postings.lineCount(i);
+			}
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,115 @@
+package appDomain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import implementations.AVLTree;
+import implementations.BSTreeIterator;
+import utilities.Iterator;
+
+/**
+ * Loading a repository of <code>words</code> words into a word tree, as
+ * WordTracker did at startup before repositories were read in place: every
+ * word and its postings are decoded in ascending order, and the tree is either
+ * built in one pass with {@link AVLTree#fromSorted(Iterator, int)}, with the
+ * postings attached in a second in-order pass, or filled by an addOrGet loop.
+ * Both include the cost of decoding, which is the same for each.
+ * <p>
+ * This benchmark is in the appDomain package because the repository classes
+ * are package-private.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+	@Param("5000000")
+	public int words;
+
+	@Param({"fromSorted", "add"})
+	public String build;
+
+	private Path directory;
+	private Path file;
+
+	@Setup
+	public void setUp() throws IOException {
+		String[] sorted = new String[words];
+		for (int i = 0; i < words; i++) {
+			sorted[i] = "w" + Integer.toString(i, 36);
+		}
+		Arrays.sort(sorted);
+		directory = Files.createTempDirectory("repository");
+		file = directory.resolve("base.idx");
+		try (RepositoryWriter writer = new RepositoryWriter(file, Collections.singletonList("file.txt"), new BitSet(), 1)) {
+			for (int i = 0; i < words; i++) {
+				Postings postings = new Postings();
+				postings.add(0, 1 + i % 1000);
+				writer.write(sorted[i], postings);
+			}
+			writer.commit();
+		}
+	}
+
+	/**
+	 * Each load allocates about a gigabyte, so the garbage of one iteration
+	 * is collected before the next rather than during it.
+	 */
+	@Setup(Level.Iteration)
+	public void collect() {
+		System.gc();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	public AVLTree<String> load() throws IOException {
+		RepositoryIndex index = RepositoryIndex.open(file);
+		IndexCursor cursor = index.cursor();
+		if (build.equals("add")) {
+			AVLTree<String> tree = new AVLTree<String>();
+			while (cursor.next()) {
+				tree.addOrGet(cursor.word()).setValue(cursor.postings());
+			}
+			return tree;
+		}
+		// Words go straight from the cursor into the tree; only the postings
+		// wait in an array for the second pass.
+		Postings[] postings = new Postings[index.wordCount()];
+		Iterator<String> sorted = new Iterator<String>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < postings.length;
+			}
+
+			@Override
+			public String next() {
+				cursor.next();
+				postings[next++] = cursor.postings();
+				return cursor.word();
+			}
+		};
+		AVLTree<String> tree = AVLTree.fromSorted(sorted, postings.length);
+		BSTreeIterator<String> nodes = tree.inorderIterator();
+		for (Postings wordPostings : postings) {
+			nodes.nextNode().setValue(wordPostings);
+		}
+		return tree;
+	}
+}
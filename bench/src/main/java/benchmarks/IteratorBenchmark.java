@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import implementations.AVLTree;
+import utilities.Iterator;
+
+/**
+ * Walking a whole AVLTree of <code>size</code> word keys with each of its
+ * traversal iterators; divide by <code>size</code> for the cost of one
+ * step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IteratorBenchmark {
+
+	@Param({"inorder", "preorder", "postorder"})
+	public String traversal;
+
+	@Param({"10000", "1000000"})
+	public int size;
+
+	private AVLTree<String> tree;
+
+	@Setup
+	public void setUp() {
+		tree = new AVLTree<String>();
+		for (String key : Keys.shuffled(size, 42)) {
+			tree.add(key);
+		}
+	}
+
+	@Benchmark
+	public int walk() {
+		Iterator<String> it;
+		switch (traversal) {
+			case "inorder":
+				it = tree.inorderIterator();
+				break;
+			case "preorder":
+				it = tree.preorderIterator();
+				break;
+			case "postorder":
+				it = tree.postorderIterator();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown traversal: " + traversal);
+		}
+		int length = 0;
+		while (it.hasNext()) {
+			length += it.next().length();
+		}
+		return length;
+	}
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Word-like keys for the tree benchmarks, in the orders they are inserted or
+ * looked up in.
+ */
+public final class Keys {
+
+	private Keys() {
+	}
+
+	/**
+	 * @return count distinct words, in ascending order
+	 */
+	public static String[] sorted(int count) {
+		String[] words = new String[count];
+		for (int i = 0; i < count; i++) {
+			words[i] = "w" + Integer.toString(i, 36);
+		}
+		Arrays.sort(words);
+		return words;
+	}
+
+	/**
+	 * @return count distinct words, in random order
+	 */
+	public static String[] shuffled(int count, long seed) {
+		String[] words = sorted(count);
+		Random random = new Random(seed);
+		for (int i = count - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			String swap = words[i];
+			words[i] = words[j];
+			words[j] = swap;
+		}
+		return words;
+	}
+
+	/**
+	 * Draws words with a Zipf distribution: the word of rank r, counting from
+	 * 1, is drawn with a probability proportional to 1 / r^skew. Each draw is
+	 * a fresh copy of the word, so that a lookup cannot succeed on a reference
+	 * check.
+	 *
+	 * @param words the words, most popular first
+	 * @param count the number of draws
+	 * @param skew the exponent of the distribution
+	 * @param seed the seed of the draws
+	 * @return the words drawn
+	 */
+	public static String[] zipf(String[] words, int count, double skew, long seed) {
+		double[] cumulative = new double[words.length];
+		double total = 0;
+		for (int i = 0; i < words.length; i++) {
+			total += 1 / Math.pow(i + 1, skew);
+			cumulative[i] = total;
+		}
+		String[] drawn = new String[count];
+		Random random = new Random(seed);
+		for (int i = 0; i < count; i++) {
+			int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+			rank = Math.min(rank < 0 ? -rank - 1 : rank, words.length - 1);
+			drawn[i] = new String(words[rank].toCharArray());
+		}
+		return drawn;
+	}
+}
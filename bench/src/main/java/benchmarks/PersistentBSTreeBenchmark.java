@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import implementations.PersistentBSTree;
+
+/**
+ * Cost of making a new PersistentBSTree version. Everything an add allocates
+ * is the copied path, which stays reachable for as long as the new version is
+ * kept, so run with -prof gc: gc.alloc.rate.norm is the memory retained per
+ * version.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PersistentBSTreeBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	private PersistentBSTree<Integer> tree;
+	private Integer[] keys;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		tree = PersistentBSTree.empty();
+		for (int i = 0; i < size; i++) {
+			tree = tree.add(random.nextInt() & ~1);
+		}
+		// Odd keys are never in the tree, so every add makes a new version.
+		keys = new Integer[1 << 16];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = random.nextInt() | 1;
+		}
+	}
+
+	@Benchmark
+	public PersistentBSTree<Integer> add() {
+		next = (next + 1) & (keys.length - 1);
+		return tree.add(keys[next]);
+	}
+}
@@ -0,0 +1,162 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import appDomain.Tokenizer;
+
+/**
+ * Closed-loop load generator for <code>WordTracker -serve &lt;port&gt;</code>.
+ * Each client connection sends QUERY requests for words of a text file, one at
+ * a time, and records how long every response takes to arrive in full.
+ * Latencies measured during the warm-up are discarded; the rest are reported
+ * as percentiles, followed by the server's lookup cache statistics.
+ * <p>
+ * Words are drawn uniformly, or with a skew above 0 from a Zipf distribution
+ * over the words ranked by how often they occur in the file, which is closer
+ * to a real query trace where a few words make up most queries.
+ * <p>
+ * Usage: <code>QueryLoadGenerator &lt;port&gt; &lt;words file&gt; [clients]
+ * [seconds] [warm-up seconds] [-pf|-pl|-po] [skew]</code>
+ */
+public class QueryLoadGenerator {
+
+	private static final int TRACE_LENGTH = 1 << 16;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: QueryLoadGenerator <port> <words file> [clients] [seconds] [warm-up seconds] [-pf|-pl|-po] [skew]");
+			return;
+		}
+		int port = Integer.parseInt(args[0]);
+		final String[] words = readWords(args[1]);
+		int clients = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+		long warmup = args.length > 4 ? Long.parseLong(args[4]) : 5;
+		final String option = args.length > 5 ? args[5] : "-pf";
+		final double skew = args.length > 6 ? Double.parseDouble(args[6]) : 0;
+
+		final AtomicBoolean measuring = new AtomicBoolean();
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final long[][] latencies = new long[clients][];
+		final int[] counts = new int[clients];
+		List<Thread> threads = new ArrayList<>();
+		for (int c = 0; c < clients; c++) {
+			final int client = c;
+			threads.add(new Thread(() -> {
+				long[] recorded = new long[1 << 16];
+				int count = 0;
+				Random random = new Random(client);
+				String[] trace = skew > 0 ? Keys.zipf(words, TRACE_LENGTH, skew, client) : null;
+				try (Socket socket = new Socket("localhost", port)) {
+					socket.setTcpNoDelay(true);
+					OutputStream out = socket.getOutputStream();
+					BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+					while (running.get()) {
+						String word = trace != null ? trace[random.nextInt(trace.length)] : words[random.nextInt(words.length)];
+						long start = System.nanoTime();
+						out.write(("QUERY " + word + " " + option + "\n").getBytes(StandardCharsets.UTF_8));
+						out.flush();
+						String line;
+						while ((line = in.readLine()) != null && !line.startsWith("OK") && !line.startsWith("ERR")) {
+							// report lines
+						}
+						if (line == null) {
+							throw new IOException("Server closed the connection.");
+						}
+						long elapsed = System.nanoTime() - start;
+						if (measuring.get()) {
+							if (count == recorded.length) {
+								recorded = Arrays.copyOf(recorded, count * 2);
+							}
+							recorded[count++] = elapsed;
+						}
+					}
+					out.write("QUIT\n".getBytes(StandardCharsets.UTF_8));
+					out.flush();
+				} catch (IOException e) {
+					System.err.println("Client " + client + ": " + e.getMessage());
+				}
+				latencies[client] = recorded;
+				counts[client] = count;
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		Thread.sleep(warmup * 1000);
+		measuring.set(true);
+		Thread.sleep(seconds * 1000);
+		measuring.set(false);
+		running.set(false);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		int total = 0;
+		for (int count : counts) {
+			total += count;
+		}
+		long[] all = new long[total];
+		int offset = 0;
+		for (int c = 0; c < clients; c++) {
+			System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+			offset += counts[c];
+		}
+		Arrays.sort(all);
+		System.out.printf("clients=%d option=%s skew=%s requests=%d throughput=%.0f req/s%n",
+			clients, option, skew, total, total / (double) seconds);
+		if (total == 0) {
+			return;
+		}
+		System.out.printf("latency (us): p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+			percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 99.9), all[total - 1] / 1000.0);
+		System.out.println("lookup cache: " + stats(port));
+	}
+
+	/**
+	 * @return the server's reply to STATS, such as "hits 10 misses 2"
+	 */
+	private static String stats(int port) throws IOException {
+		try (Socket socket = new Socket("localhost", port)) {
+			OutputStream out = socket.getOutputStream();
+			out.write("STATS\nQUIT\n".getBytes(StandardCharsets.UTF_8));
+			out.flush();
+			String line = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)).readLine();
+			return line == null ? "no reply" : line.replaceFirst("^OK ", "");
+		}
+	}
+
+	private static double percentile(long[] sorted, double percent) {
+		int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1000.0;
+	}
+
+	/**
+	 * @return the distinct words of a file, the most frequent first
+	 */
+	private static String[] readWords(String file) throws IOException {
+		final Map<String, Integer> counts = new HashMap<>();
+		byte[] bytes = Files.readAllBytes(Paths.get(file));
+		new Tokenizer().tokenize(bytes, 0, bytes.length, (word, line) -> counts.merge(word, 1, Integer::sum));
+		String[] words = counts.keySet().toArray(new String[0]);
+		Arrays.sort(words, (a, b) -> {
+			int comparison = Integer.compare(counts.get(b), counts.get(a));
+			return comparison != 0 ? comparison : a.compareTo(b);
+		});
+		return words;
+	}
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import appDomain.Tokenizer;
+import implementations.AVLTree;
+import implementations.PackedStringBSTree;
+import utilities.BSTreeADT;
+
+/**
+ * Inserting and looking up words in the object-per-node AVLTree and in the
+ * array-backed PackedStringBSTree. The keys are the distinct words of a text
+ * file, repeated with numbered suffixes until there are <code>words</code> of
+ * them. Run with -prof gc to see the allocation per insert.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringTreeBenchmark {
+
+	@Param({"avl", "packed"})
+	public String layout;
+
+	@Param({"10000", "1000000"})
+	public int words;
+
+	@Param("res/textfile.txt")
+	public String file;
+
+	private String[] keys;
+	private String[] probes;
+	private BSTreeADT<String> filled;
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		final LinkedHashSet<String> unique = new LinkedHashSet<>();
+		byte[] bytes = Files.readAllBytes(Paths.get(file));
+		new Tokenizer().tokenize(bytes, 0, bytes.length, (word, line) -> unique.add(word));
+		List<String> distinct = new ArrayList<>(unique);
+		// Suffixes make the repeated copies distinct keys.
+		keys = new String[words];
+		for (int i = 0; i < words; i++) {
+			keys[i] = distinct.get(i % distinct.size()) + (i / distinct.size());
+		}
+		List<String> shuffled = new ArrayList<>();
+		Collections.addAll(shuffled, keys);
+		Collections.shuffle(shuffled, new Random(42));
+		keys = shuffled.toArray(new String[0]);
+		// Fresh copies, so a lookup cannot succeed on a reference check.
+		probes = new String[1 << 16];
+		Random random = new Random(7);
+		for (int i = 0; i < probes.length; i++) {
+			probes[i] = new String(keys[random.nextInt(words)].toCharArray());
+		}
+		filled = newTree();
+		for (String key : keys) {
+			filled.add(key);
+		}
+	}
+
+	private BSTreeADT<String> newTree() {
+		return layout.equals("packed") ? new PackedStringBSTree() : new AVLTree<String>();
+	}
+
+	/**
+	 * Builds a whole tree from the shuffled keys; divide by <code>words</code>
+	 * for the cost of one insert.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public BSTreeADT<String> insert() {
+		BSTreeADT<String> tree = newTree();
+		for (String key : keys) {
+			tree.add(key);
+		}
+		return tree;
+	}
+
+	@Benchmark
+	public boolean lookup() {
+		next = (next + 1) & (probes.length - 1);
+		return filled.contains(probes[next]);
+	}
+}
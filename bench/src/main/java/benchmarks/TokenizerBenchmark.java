@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import appDomain.Tokenizer;
+
+/**
+ * Compares the Scanner and split("\\W+") loop that processFile used to run
+ * with the Tokenizer that replaced it, both on res/textfile.txt held in memory
+ * so that only tokenizing is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+	@Param("res/textfile.txt")
+	public String file;
+
+	private byte[] bytes;
+	private String text;
+	private Tokenizer tokenizer;
+
+	@Setup
+	public void setUp() throws IOException {
+		bytes = Files.readAllBytes(Paths.get(file));
+		text = new String(bytes, StandardCharsets.UTF_8);
+		tokenizer = new Tokenizer();
+	}
+
+	@Benchmark
+	public void scannerSplit(Blackhole blackhole) {
+		try (Scanner scanner = new Scanner(text)) {
+			int lineNumber = 0;
+			while (scanner.hasNextLine()) {
+				lineNumber++;
+				for (String word : scanner.nextLine().split("\\W+")) {
+					if (!word.isEmpty()) {
+						blackhole.consume(word.toLowerCase());
+						blackhole.consume(lineNumber);
+					}
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public int tokenizer(Blackhole blackhole) {
+		return tokenizer.tokenize(bytes, 0, bytes.length, (word, line) -> {
+			blackhole.consume(word);
+			blackhole.consume(line);
+		});
+	}
+}
@@ -0,0 +1,136 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import implementations.AVLTree;
+import implementations.BSTree;
+import implementations.BSTreeNode;
+
+/**
+ * The basic operations of BSTree and AVLTree on <code>size</code> word keys
+ * that arrive in random order, in ascending order, or drawn with a Zipf
+ * distribution, which repeats the popular words as a text does. Lookups probe
+ * the keys in the order they were added. Sorted keys make a BSTree a list, so
+ * keep <code>size</code> small for it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TreeBenchmark {
+
+	@Param({"bst", "avl"})
+	public String tree;
+
+	@Param({"random", "sorted", "zipf"})
+	public String order;
+
+	@Param("10000")
+	public int size;
+
+	private String[] keys;
+	private BSTree<String> filled;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		switch (order) {
+			case "random":
+				keys = Keys.shuffled(size, 42);
+				break;
+			case "sorted":
+				keys = Keys.sorted(size);
+				break;
+			case "zipf":
+				keys = Keys.zipf(Keys.shuffled(size, 42), size, 1.0, 7);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown order: " + order);
+		}
+		filled = fill();
+	}
+
+	BSTree<String> fill() {
+		BSTree<String> filling = tree.equals("avl") ? new AVLTree<String>() : new BSTree<String>();
+		for (String key : keys) {
+			filling.add(key);
+		}
+		return filling;
+	}
+
+	/**
+	 * Builds a whole tree from the keys; divide by <code>size</code> for the
+	 * cost of one add.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public BSTree<String> add() {
+		return fill();
+	}
+
+	@Benchmark
+	public boolean contains() {
+		next = next + 1 == keys.length ? 0 : next + 1;
+		return filled.contains(keys[next]);
+	}
+
+	@Benchmark
+	public BSTreeNode<String> search() {
+		next = next + 1 == keys.length ? 0 : next + 1;
+		return filled.search(keys[next]);
+	}
+
+	/**
+	 * A tree that each measurement empties; it is filled again before the
+	 * next one.
+	 */
+	@State(Scope.Thread)
+	public static class Drained {
+		BSTree<String> tree;
+
+		@Setup(Level.Iteration)
+		public void fill(TreeBenchmark benchmark) {
+			tree = benchmark.fill();
+		}
+	}
+
+	/**
+	 * Empties a whole tree from the smallest key up; divide by the number of
+	 * distinct keys for the cost of one removeMin.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public BSTreeNode<String> removeMin(Drained drained) {
+		BSTreeNode<String> last = null;
+		for (BSTreeNode<String> node; (node = drained.tree.removeMin()) != null; ) {
+			last = node;
+		}
+		return last;
+	}
+
+	/**
+	 * Empties a whole tree from the largest key down.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public BSTreeNode<String> removeMax(Drained drained) {
+		BSTreeNode<String> last = null;
+		for (BSTreeNode<String> node; (node = drained.tree.removeMax()) != null; ) {
+			last = node;
+		}
+		return last;
+	}
+}
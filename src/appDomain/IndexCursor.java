@@ -0,0 +1,32 @@
+package appDomain;
+
+/**
+ * Forward-only walk over words and their postings in ascending word order.
+ * A cursor starts before the first word; call {@link #next()} to move onto it.
+ */
+interface IndexCursor {
+	/**
+	 * Moves to the next word.
+	 *
+	 * @return false once there are no more words
+	 */
+	boolean next();
+
+	/**
+	 * Repositions the cursor so that the following {@link #next()} moves onto
+	 * the first word greater than or equal to the given one.
+	 *
+	 * @param word the word to seek to, which need not be present
+	 */
+	void seek(String word);
+
+	/**
+	 * @return the word the cursor is on
+	 */
+	String word();
+
+	/**
+	 * @return the postings of the word the cursor is on
+	 */
+	Postings postings();
+}
@@ -0,0 +1,73 @@
+package appDomain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the saved postings of single words, in front of
+ * {@link Repository#lookup(String, java.util.BitSet)}. When it is full the
+ * least recently used word is dropped. Words that were not found are cached
+ * as well, as {@link #NOT_FOUND}. Queries on several threads may share one
+ * cache; the owner clears it whenever the repository or its dropped files
+ * change.
+ */
+class LookupCache {
+	/**
+	 * Cached for a word with no saved postings. It must never be modified.
+	 */
+	static final Postings NOT_FOUND = new Postings();
+
+	private final LinkedHashMap<String, Postings> entries;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param capacity the most words to cache
+	 */
+	LookupCache(final int capacity) {
+		entries = new LinkedHashMap<String, Postings>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Postings> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return the cached postings of a word, which the caller must not
+	 *         modify, or null if the word has to be looked up
+	 */
+	synchronized Postings get(String word) {
+		Postings postings = entries.get(word);
+		if (postings != null) {
+			hits++;
+		} else {
+			misses++;
+		}
+		return postings;
+	}
+
+	synchronized void put(String word, Postings postings) {
+		entries.put(word, postings);
+	}
+
+	synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups that had to search the repository
+	 */
+	synchronized long misses() {
+		return misses;
+	}
+}
@@ -0,0 +1,45 @@
+package appDomain;
+
+import java.util.BitSet;
+
+/**
+ * Cursor that hides the postings of some files from another cursor, and skips
+ * the words that are left without any postings. Used to apply the files
+ * dropped by a newer source to the older ones.
+ */
+class MaskingCursor implements IndexCursor {
+	private final IndexCursor source;
+	private final BitSet maskedFiles;
+	private Postings postings;
+
+	MaskingCursor(IndexCursor source, BitSet maskedFiles) {
+		this.source = source;
+		this.maskedFiles = maskedFiles;
+	}
+
+	@Override
+	public boolean next() {
+		while (source.next()) {
+			postings = source.postings().without(maskedFiles);
+			if (postings.fileCount() > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void seek(String word) {
+		source.seek(word);
+	}
+
+	@Override
+	public String word() {
+		return source.word();
+	}
+
+	@Override
+	public Postings postings() {
+		return postings;
+	}
+}
@@ -0,0 +1,77 @@
+package appDomain;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted k-way merge of several cursors. A word found in more than one source
+ * is returned once, with the postings of every source combined in source
+ * order, so older sources should come first.
+ */
+class MergingCursor implements IndexCursor {
+	private final IndexCursor[] sources;
+	private final PriorityQueue<Integer> heads;
+	private String word;
+	private Postings postings;
+
+	MergingCursor(List<? extends IndexCursor> sources) {
+		this.sources = sources.toArray(new IndexCursor[0]);
+		this.heads = new PriorityQueue<>(Math.max(1, this.sources.length), (a, b) -> {
+			int comparison = this.sources[a].word().compareTo(this.sources[b].word());
+			return comparison != 0 ? comparison : Integer.compare(a, b);
+		});
+		for (int i = 0; i < this.sources.length; i++) {
+			advance(i);
+		}
+	}
+
+	@Override
+	public boolean next() {
+		if (heads.isEmpty()) {
+			return false;
+		}
+		int first = heads.poll();
+		word = sources[first].word();
+		postings = sources[first].postings();
+		advance(first);
+		boolean copied = false;
+		while (!heads.isEmpty() && sources[heads.peek()].word().equals(word)) {
+			int source = heads.poll();
+			if (!copied) {
+				// Never modify a source's postings; they may belong to a tree.
+				Postings combined = new Postings();
+				combined.addAll(postings);
+				postings = combined;
+				copied = true;
+			}
+			postings.addAll(sources[source].postings());
+			advance(source);
+		}
+		return true;
+	}
+
+	@Override
+	public void seek(String word) {
+		heads.clear();
+		for (int i = 0; i < sources.length; i++) {
+			sources[i].seek(word);
+			advance(i);
+		}
+	}
+
+	@Override
+	public String word() {
+		return word;
+	}
+
+	@Override
+	public Postings postings() {
+		return postings;
+	}
+
+	private void advance(int source) {
+		if (sources[source].next()) {
+			heads.add(source);
+		}
+	}
+}
@@ -0,0 +1,479 @@
+package appDomain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Words and postings of the current run kept outside the Java heap, for runs
+ * whose word tree would not fit in it.
+ * <p>
+ * Keys and postings live in {@link Arena}s of memory-mapped buffers over
+ * temporary files, so they are limited by disk space rather than by the heap
+ * or <code>-XX:MaxDirectMemorySize</code>, and the operating system pages
+ * them out under memory pressure. Each word is a fixed-size entry holding the
+ * address of its UTF-8 key and of the first and last block of a chain of
+ * postings blocks; each block holds (file id, line) pairs in the order they
+ * were added, and blocks double in size as a word's list grows. The only
+ * per-word state on the heap is one <code>int</code> slot of an
+ * open-addressing hash table from words to entries.
+ * <p>
+ * Words are kept in the order they were first added; {@link #cursor()} sorts
+ * them by their UTF-8 bytes, which is the order of
+ * {@link String#compareTo(String)} for every word {@link Tokenizer} produces.
+ * Postings are built on the heap one word at a time as a cursor reaches them.
+ * Not thread-safe.
+ */
+class OffHeapIndex implements Closeable {
+	// Entry layout: key address, first block, last block, key length, hash.
+	private static final int ENTRY_SIZE = 32;
+	private static final int KEY = 0;
+	private static final int HEAD = 8;
+	private static final int TAIL = 16;
+	private static final int KEY_LENGTH = 24;
+	private static final int HASH = 28;
+
+	// Block layout: next block, pairs used, pair capacity, then the pairs.
+	private static final int BLOCK_HEADER = 16;
+	private static final int NEXT = 0;
+	private static final int USED = 8;
+	private static final int CAPACITY = 12;
+	private static final int FIRST_BLOCK_PAIRS = 2;
+	private static final int MAX_BLOCK_PAIRS = 1024;
+	private static final long NIL = -1;
+
+	private final Arena entries;
+	private final Arena data;
+	private int[] slots; // entry id + 1, or 0 for an empty slot
+	private int wordCount;
+
+	OffHeapIndex() throws IOException {
+		entries = new Arena();
+		data = new Arena();
+		slots = new int[1024];
+	}
+
+	/**
+	 * Records an occurrence of a word on a line of a file.
+	 *
+	 * @param word the word found
+	 * @param fileId the id of the file it was found in
+	 * @param line the line number it was found on
+	 */
+	void add(String word, int fileId, int line) {
+		long entry = entryOf(word);
+		long tail = entries.getLong(entry + TAIL);
+		int used = data.getInt(tail + USED);
+		int capacity = data.getInt(tail + CAPACITY);
+		if (used == capacity) {
+			long block = allocateBlock(Math.min(capacity * 2, MAX_BLOCK_PAIRS));
+			data.putLong(tail + NEXT, block);
+			entries.putLong(entry + TAIL, block);
+			tail = block;
+			used = 0;
+		}
+		long pair = tail + BLOCK_HEADER + 8L * used;
+		data.putInt(pair, fileId);
+		data.putInt(pair + 4, line);
+		data.putInt(tail + USED, used + 1);
+	}
+
+	/**
+	 * Removes every occurrence recorded for a file. Blocks are compacted in
+	 * place; the space freed is reused only after {@link #clear()}.
+	 *
+	 * @param fileId the id of the file to remove
+	 */
+	void removeFile(int fileId) {
+		for (int id = 0; id < wordCount; id++) {
+			long entry = (long) id * ENTRY_SIZE;
+			long writeBlock = entries.getLong(entry + HEAD);
+			int written = 0;
+			for (long block = writeBlock; block != NIL; block = data.getLong(block + NEXT)) {
+				int used = data.getInt(block + USED);
+				for (int i = 0; i < used; i++) {
+					long pair = block + BLOCK_HEADER + 8L * i;
+					int file = data.getInt(pair);
+					if (file == fileId) {
+						continue;
+					}
+					if (written == data.getInt(writeBlock + CAPACITY)) {
+						writeBlock = data.getLong(writeBlock + NEXT);
+						written = 0;
+					}
+					long target = writeBlock + BLOCK_HEADER + 8L * written++;
+					data.putInt(target, file);
+					data.putInt(target + 4, data.getInt(pair + 4));
+				}
+			}
+			data.putInt(writeBlock + USED, written);
+			data.putLong(writeBlock + NEXT, NIL);
+			entries.putLong(entry + TAIL, writeBlock);
+		}
+	}
+
+	/**
+	 * Discards every word, keeping the mapped memory for reuse.
+	 */
+	void clear() {
+		entries.clear();
+		data.clear();
+		Arrays.fill(slots, 0);
+		wordCount = 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			entries.close();
+		} finally {
+			data.close();
+		}
+	}
+
+	/**
+	 * Returns a cursor over the words with occurrences, in ascending order.
+	 * Words added after this call are not seen by the cursor.
+	 *
+	 * @return a cursor over the current words
+	 */
+	IndexCursor cursor() {
+		int[] sorted = new int[wordCount];
+		int count = 0;
+		for (int id = 0; id < wordCount; id++) {
+			if (!isEmpty(id)) {
+				sorted[count++] = id;
+			}
+		}
+		sorted = Arrays.copyOf(sorted, count);
+		mergeSort(sorted, sorted.clone(), 0, count);
+		return new Cursor(sorted);
+	}
+
+	private boolean isEmpty(int id) {
+		return data.getInt(entries.getLong((long) id * ENTRY_SIZE + HEAD) + USED) == 0;
+	}
+
+	/**
+	 * Finds the entry of a word, creating it with an empty first block if the
+	 * word is new.
+	 */
+	private long entryOf(String word) {
+		int hash = word.hashCode();
+		int mask = slots.length - 1;
+		int slot = mix(hash) & mask;
+		byte[] encoded = null;
+		for (int id; (id = slots[slot] - 1) >= 0; slot = (slot + 1) & mask) {
+			long entry = (long) id * ENTRY_SIZE;
+			if (entries.getInt(entry + HASH) != hash) {
+				continue;
+			}
+			long key = entries.getLong(entry + KEY);
+			int length = entries.getInt(entry + KEY_LENGTH);
+			if (isAscii(word)) {
+				if (equalsAscii(word, key, length)) {
+					return entry;
+				}
+				continue;
+			}
+			if (encoded == null) {
+				encoded = word.getBytes(StandardCharsets.UTF_8);
+			}
+			if (compareKey(encoded, key, length) == 0) {
+				return entry;
+			}
+		}
+
+		if (encoded == null) {
+			encoded = word.getBytes(StandardCharsets.UTF_8);
+		}
+		int id = wordCount++;
+		long entry = entries.allocate(ENTRY_SIZE);
+		long key = data.allocate(encoded.length);
+		data.put(key, encoded);
+		long block = allocateBlock(FIRST_BLOCK_PAIRS);
+		entries.putLong(entry + KEY, key);
+		entries.putLong(entry + HEAD, block);
+		entries.putLong(entry + TAIL, block);
+		entries.putInt(entry + KEY_LENGTH, encoded.length);
+		entries.putInt(entry + HASH, hash);
+		slots[slot] = id + 1;
+		if (wordCount * 2 > slots.length) {
+			growSlots();
+		}
+		return entry;
+	}
+
+	private void growSlots() {
+		int[] grown = new int[slots.length * 2];
+		int mask = grown.length - 1;
+		for (int id = 0; id < wordCount; id++) {
+			int slot = mix(entries.getInt((long) id * ENTRY_SIZE + HASH)) & mask;
+			while (grown[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			grown[slot] = id + 1;
+		}
+		slots = grown;
+	}
+
+	/**
+	 * Spreads the high bits of a String hash, which differ most between
+	 * words that share a prefix, into the low bits used for the slot.
+	 */
+	private static int mix(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private long allocateBlock(int pairs) {
+		long block = data.allocate(BLOCK_HEADER + 8 * pairs);
+		data.putLong(block + NEXT, NIL);
+		data.putInt(block + USED, 0);
+		data.putInt(block + CAPACITY, pairs);
+		return block;
+	}
+
+	private static boolean isAscii(String word) {
+		for (int i = 0; i < word.length(); i++) {
+			if (word.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean equalsAscii(String word, long key, int length) {
+		if (word.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (data.get(key + i) != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares UTF-8 bytes with a stored key as unsigned bytes.
+	 */
+	private int compareKey(byte[] bytes, long key, int length) {
+		int common = Math.min(bytes.length, length);
+		for (int i = 0; i < common; i++) {
+			int difference = (bytes[i] & 0xFF) - (data.get(key + i) & 0xFF);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return bytes.length - length;
+	}
+
+	private int compareEntries(int a, int b) {
+		long entryA = (long) a * ENTRY_SIZE;
+		long entryB = (long) b * ENTRY_SIZE;
+		long keyA = entries.getLong(entryA + KEY);
+		long keyB = entries.getLong(entryB + KEY);
+		int lengthA = entries.getInt(entryA + KEY_LENGTH);
+		int lengthB = entries.getInt(entryB + KEY_LENGTH);
+		int common = Math.min(lengthA, lengthB);
+		for (int i = 0; i < common; i++) {
+			int difference = (data.get(keyA + i) & 0xFF) - (data.get(keyB + i) & 0xFF);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return lengthA - lengthB;
+	}
+
+	/**
+	 * Sorts ids[from, to) by key, using scratch, which starts as a copy of
+	 * ids, as the other buffer.
+	 */
+	private void mergeSort(int[] ids, int[] scratch, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		mergeSort(scratch, ids, from, middle);
+		mergeSort(scratch, ids, middle, to);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && compareEntries(scratch[left], scratch[right]) <= 0)) {
+				ids[i] = scratch[left++];
+			} else {
+				ids[i] = scratch[right++];
+			}
+		}
+	}
+
+	/**
+	 * Cursor over a sorted array of entry ids.
+	 */
+	private class Cursor implements IndexCursor {
+		private final int[] sorted;
+		private int position = -1;
+		private String word;
+		private Postings postings;
+
+		Cursor(int[] sorted) {
+			this.sorted = sorted;
+		}
+
+		@Override
+		public boolean next() {
+			if (position + 1 >= sorted.length) {
+				position = sorted.length;
+				return false;
+			}
+			long entry = (long) sorted[++position] * ENTRY_SIZE;
+			byte[] key = new byte[entries.getInt(entry + KEY_LENGTH)];
+			data.get(entries.getLong(entry + KEY), key);
+			word = new String(key, StandardCharsets.UTF_8);
+			postings = new Postings();
+			for (long block = entries.getLong(entry + HEAD); block != NIL; block = data.getLong(block + NEXT)) {
+				int used = data.getInt(block + USED);
+				for (int i = 0; i < used; i++) {
+					long pair = block + BLOCK_HEADER + 8L * i;
+					postings.add(data.getInt(pair), data.getInt(pair + 4));
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public void seek(String target) {
+			byte[] bytes = target.getBytes(StandardCharsets.UTF_8);
+			int low = 0;
+			int high = sorted.length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				long entry = (long) sorted[middle] * ENTRY_SIZE;
+				if (compareKey(bytes, entries.getLong(entry + KEY), entries.getInt(entry + KEY_LENGTH)) > 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			position = low - 1;
+		}
+
+		@Override
+		public String word() {
+			return word;
+		}
+
+		@Override
+		public Postings postings() {
+			return postings;
+		}
+	}
+
+	/**
+	 * Bump allocator over fixed-size chunks mapped from a temporary file that
+	 * is deleted when the arena is closed. An address is the chunk number in
+	 * the high bits and the offset within the chunk in the low bits; no
+	 * allocation spans two chunks.
+	 */
+	static class Arena implements Closeable {
+		private static final int CHUNK_BITS = 26;
+		private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+		private static final long OFFSET_MASK = CHUNK_SIZE - 1;
+
+		private final FileChannel file;
+		private final List<ByteBuffer> chunks;
+		private long next;
+
+		Arena() throws IOException {
+			Path path = Files.createTempFile("wordtracker", ".arena");
+			file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+			chunks = new ArrayList<>();
+		}
+
+		/**
+		 * @param size the number of bytes wanted, at most the chunk size
+		 * @return the address of the allocated bytes
+		 */
+		long allocate(int size) {
+			if (size > CHUNK_SIZE) {
+				throw new IllegalArgumentException("Allocation too large: " + size + " bytes.");
+			}
+			if ((next & OFFSET_MASK) + size > CHUNK_SIZE) {
+				next = (next & ~OFFSET_MASK) + CHUNK_SIZE;
+			}
+			int chunk = (int) (next >>> CHUNK_BITS);
+			while (chunk >= chunks.size()) {
+				try {
+					ByteBuffer mapped = file.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() << CHUNK_BITS, CHUNK_SIZE);
+					chunks.add(mapped.order(ByteOrder.nativeOrder()));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			long address = next;
+			next += size;
+			return address;
+		}
+
+		void clear() {
+			next = 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			chunks.clear();
+			file.close();
+		}
+
+		byte get(long address) {
+			return chunk(address).get(offset(address));
+		}
+
+		void get(long address, byte[] bytes) {
+			ByteBuffer chunk = chunk(address).duplicate();
+			chunk.position(offset(address));
+			chunk.get(bytes);
+		}
+
+		void put(long address, byte[] bytes) {
+			ByteBuffer chunk = chunk(address).duplicate();
+			chunk.position(offset(address));
+			chunk.put(bytes);
+		}
+
+		int getInt(long address) {
+			return chunk(address).getInt(offset(address));
+		}
+
+		void putInt(long address, int value) {
+			chunk(address).putInt(offset(address), value);
+		}
+
+		long getLong(long address) {
+			return chunk(address).getLong(offset(address));
+		}
+
+		void putLong(long address, long value) {
+			chunk(address).putLong(offset(address), value);
+		}
+
+		private ByteBuffer chunk(long address) {
+			return chunks.get((int) (address >>> CHUNK_BITS));
+		}
+
+		private static int offset(long address) {
+			return (int) (address & OFFSET_MASK);
+		}
+	}
+}
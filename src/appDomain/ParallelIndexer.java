@@ -0,0 +1,286 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import implementations.AVLTree;
+import implementations.BSTree;
+import implementations.BSTreeIterator;
+
+/**
+ * Tokenizes many files at once on a fork-join pool. Small files are grouped
+ * into contiguous runs, and a large file is split into byte ranges that end
+ * just after a <code>'\n'</code>. Each run or range is indexed into its own tree
+ * by one task, so workers never share a tree or a {@link Tokenizer}.
+ * <p>
+ * A range is numbered from line 1 while it is tokenized. Once every task has
+ * finished, the line counts of the ranges of each file are summed in order and
+ * each range's postings are shifted by the lines that precede it. The trees
+ * come back in file order; merging them with a {@link MergingCursor} in that
+ * order lists each word's files and lines exactly as a sequential run over the
+ * same files would.
+ */
+class ParallelIndexer {
+	// More tasks than threads, so a thread that draws a short task picks up
+	// another instead of idling while the others finish.
+	private static final int TASKS_PER_THREAD = 4;
+	// Below this a file is not worth splitting.
+	private static final long MIN_CHUNK_SIZE = 1 << 22;
+
+	private final int threads;
+	private final long minChunkSize;
+	private final ThreadLocal<Tokenizer> tokenizers;
+
+	ParallelIndexer(int threads) {
+		this(threads, MIN_CHUNK_SIZE);
+	}
+
+	/**
+	 * Lets tests split small files into many ranges.
+	 */
+	ParallelIndexer(int threads, long minChunkSize) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Thread count must be at least 1.");
+		}
+		this.threads = threads;
+		this.minChunkSize = minChunkSize;
+		this.tokenizers = ThreadLocal.withInitial(Tokenizer::new);
+	}
+
+	/**
+	 * Indexes the given files in parallel.
+	 *
+	 * @param fileNames the files to read
+	 * @param fileIds the id to record for each file, by position in fileNames
+	 * @return the trees of every task, in the order of fileNames
+	 */
+	List<BSTree<String>> index(List<String> fileNames, int[] fileIds) {
+		List<Task> tasks = plan(fileNames, fileIds);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			List<ForkJoinTask<BSTree<String>>> running = new ArrayList<>(tasks.size());
+			for (Task task : tasks) {
+				running.add(pool.submit(task::run));
+			}
+			List<BSTree<String>> trees = new ArrayList<>(tasks.size());
+			for (ForkJoinTask<BSTree<String>> task : running) {
+				trees.add(task.join());
+			}
+
+			// Prefix sum of the line terminators in the earlier ranges of the
+			// same file. A range other than the last ends with '\n', so it
+			// holds one terminator fewer than its last line number.
+			List<ForkJoinTask<?>> shifts = new ArrayList<>();
+			int previousFile = -1;
+			int linesBefore = 0;
+			for (int i = 0; i < tasks.size(); i++) {
+				Task task = tasks.get(i);
+				if (task.start < 0) {
+					continue;
+				}
+				if (task.from != previousFile) {
+					previousFile = task.from;
+					linesBefore = 0;
+				}
+				if (linesBefore > 0) {
+					BSTree<String> tree = trees.get(i);
+					int offset = linesBefore;
+					shifts.add(pool.submit(() -> shiftLines(tree, offset)));
+				}
+				linesBefore += task.lastLine - 1;
+			}
+			for (ForkJoinTask<?> shift : shifts) {
+				shift.join();
+			}
+			return trees;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Splits the files into tasks of roughly equal size, in file order.
+	 */
+	private List<Task> plan(List<String> fileNames, int[] fileIds) {
+		long[] sizes = new long[fileNames.size()];
+		long total = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			try {
+				sizes[i] = Files.size(Paths.get(fileNames.get(i)));
+			} catch (IOException e) {
+				sizes[i] = 0; // reported when the task fails to open it
+			}
+			total += sizes[i];
+		}
+		long target = Math.max(minChunkSize, total / (threads * TASKS_PER_THREAD));
+
+		List<Task> tasks = new ArrayList<>();
+		int runStart = 0;
+		long runSize = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			if (sizes[i] < 2 * target) {
+				runSize += sizes[i];
+				if (runSize >= target) {
+					tasks.add(new Task(fileNames, fileIds, runStart, i + 1));
+					runStart = i + 1;
+					runSize = 0;
+				}
+				continue;
+			}
+			if (runStart < i) {
+				tasks.add(new Task(fileNames, fileIds, runStart, i));
+			}
+			runStart = i + 1;
+			runSize = 0;
+			try {
+				long[] bounds = chunkBounds(fileNames.get(i), sizes[i], (int) (sizes[i] / target));
+				for (int chunk = 0; chunk + 1 < bounds.length; chunk++) {
+					tasks.add(new Task(fileNames, fileIds, i, bounds[chunk], bounds[chunk + 1]));
+				}
+			} catch (IOException e) {
+				tasks.add(new Task(fileNames, fileIds, i, i + 1));
+			}
+		}
+		if (runStart < sizes.length) {
+			tasks.add(new Task(fileNames, fileIds, runStart, sizes.length));
+		}
+		return tasks;
+	}
+
+	/**
+	 * Finds up to <code>chunks</code> ranges of a file that each end just after a
+	 * <code>'\n'</code>, or at the end of the file.
+	 */
+	private static long[] chunkBounds(String fileName, long size, int chunks) throws IOException {
+		long[] bounds = new long[chunks + 1];
+		int count = 1;
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			for (int chunk = 1; chunk < chunks; chunk++) {
+				long position = Math.max(size / chunks * chunk, bounds[count - 1]);
+				long bound = size;
+				search:
+				while (position < size) {
+					buffer.clear();
+					int read = channel.read(buffer, position);
+					if (read <= 0) {
+						break;
+					}
+					for (int i = 0; i < read; i++) {
+						if (buffer.get(i) == '\n') {
+							bound = position + i + 1;
+							break search;
+						}
+					}
+					position += read;
+				}
+				if (bound >= size) {
+					break;
+				}
+				bounds[count++] = bound;
+			}
+		}
+		bounds[count++] = size;
+		return Arrays.copyOf(bounds, count);
+	}
+
+	private static void shiftLines(BSTree<String> tree, int offset) {
+		BSTreeIterator<String> nodes = tree.inorderIterator();
+		while (nodes.hasNext()) {
+			((Postings) nodes.nextNode().getValue()).shiftLines(offset);
+		}
+	}
+
+	/**
+	 * Either a run of whole files [from, to), or the byte range [start, end)
+	 * of file <code>from</code>.
+	 */
+	private class Task {
+		private final List<String> fileNames;
+		private final int[] fileIds;
+		private final int from;
+		private final int to;
+		private final long start;
+		private final long end;
+		private int lastLine = 1;
+
+		Task(List<String> fileNames, int[] fileIds, int from, int to) {
+			this(fileNames, fileIds, from, to, -1, -1);
+		}
+
+		Task(List<String> fileNames, int[] fileIds, int file, long start, long end) {
+			this(fileNames, fileIds, file, file + 1, start, end);
+		}
+
+		private Task(List<String> fileNames, int[] fileIds, int from, int to, long start, long end) {
+			this.fileNames = fileNames;
+			this.fileIds = fileIds;
+			this.from = from;
+			this.to = to;
+			this.start = start;
+			this.end = end;
+		}
+
+		BSTree<String> run() {
+			BSTree<String> tree = new AVLTree<>();
+			Tokenizer tokenizer = tokenizers.get();
+			if (start < 0) {
+				for (int i = from; i < to; i++) {
+					WordTracker.indexFile(tokenizer, tree, fileNames.get(i), fileIds[i]);
+				}
+				return tree;
+			}
+			String fileName = fileNames.get(from);
+			try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+				lastLine = WordTracker.indexStream(tokenizer, tree, new RangeInputStream(channel, start, end), fileIds[from]);
+			} catch (IOException e) {
+				System.err.println("Error reading file " + fileName + ": " + e.getMessage());
+			}
+			return tree;
+		}
+	}
+
+	/**
+	 * Reads a byte range of a channel with positional reads.
+	 */
+	private static class RangeInputStream extends InputStream {
+		private final FileChannel channel;
+		private final long end;
+		private long position;
+
+		RangeInputStream(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			int wanted = (int) Math.min(len, end - position);
+			int read = channel.read(ByteBuffer.wrap(b, off, wanted), position);
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package appDomain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Compact list of where a single word occurs. Files are referred to by small
+ * integer ids handed out by WordTracker, and the line numbers for each file are
+ * kept in a growable <code>int[]</code> rather than a list of boxed Integers,
+ * so an occurrence costs four bytes instead of roughly twenty.
+ */
+public class Postings implements Serializable {
+	private static final long serialVersionUID = -6208441905413669013L;
+	private static final int INITIAL_LINES = 4;
+
+	private int fileCount;
+	private int[] files;
+	private int[] lineCounts;
+	private int[][] lines;
+
+	public Postings() {
+		files = new int[1];
+		lineCounts = new int[1];
+		lines = new int[1][];
+	}
+
+	/**
+	 * Records an occurrence of the word on a line of a file.
+	 *
+	 * @param fileId the id of the file the word was found in
+	 * @param line the line number the word was found on
+	 */
+	public void add(int fileId, int line) {
+		int index = indexOf(fileId);
+		if (index < 0) {
+			index = addFile(fileId, INITIAL_LINES);
+		}
+		int[] fileLines = lines[index];
+		if (lineCounts[index] == fileLines.length) {
+			fileLines = lines[index] = Arrays.copyOf(fileLines, fileLines.length * 2);
+		}
+		fileLines[lineCounts[index]++] = line;
+	}
+
+	/**
+	 * Records several occurrences of the word in one file at once.
+	 *
+	 * @param fileId the id of the file the word was found in
+	 * @param fileLines line numbers to append, in order
+	 * @param count how many entries of fileLines to append
+	 */
+	public void addLines(int fileId, int[] fileLines, int count) {
+		int index = indexOf(fileId);
+		if (index < 0) {
+			index = addFile(fileId, count);
+		}
+		int used = lineCounts[index];
+		if (used + count > lines[index].length) {
+			lines[index] = Arrays.copyOf(lines[index], Math.max(used + count, lines[index].length * 2));
+		}
+		System.arraycopy(fileLines, 0, lines[index], used, count);
+		lineCounts[index] = used + count;
+	}
+
+	/**
+	 * Appends every occurrence recorded in another postings list.
+	 *
+	 * @param other the postings to copy from
+	 */
+	public void addAll(Postings other) {
+		for (int i = 0; i < other.fileCount; i++) {
+			addLines(other.files[i], other.lines[i], other.lineCounts[i]);
+		}
+	}
+
+	/**
+	 * Adds a constant to every recorded line number. Used when part of a file
+	 * was indexed on its own and numbered from 1.
+	 *
+	 * @param offset the number of lines that preceded the indexed part
+	 */
+	public void shiftLines(int offset) {
+		for (int i = 0; i < fileCount; i++) {
+			int[] fileLines = lines[i];
+			for (int j = 0; j < lineCounts[i]; j++) {
+				fileLines[j] += offset;
+			}
+		}
+	}
+
+	/**
+	 * Returns these postings without the given files. This list is returned
+	 * unchanged if it has none of them, and is never modified.
+	 *
+	 * @param fileIds the ids of the files to leave out
+	 * @return postings without those files, possibly with no files at all
+	 */
+	public Postings without(BitSet fileIds) {
+		int kept = 0;
+		for (int i = 0; i < fileCount; i++) {
+			if (!fileIds.get(files[i])) {
+				kept++;
+			}
+		}
+		if (kept == fileCount) {
+			return this;
+		}
+		Postings result = new Postings();
+		for (int i = 0; i < fileCount; i++) {
+			if (!fileIds.get(files[i])) {
+				result.addLines(files[i], lines[i], lineCounts[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of distinct files the word occurs in
+	 */
+	public int fileCount() {
+		return fileCount;
+	}
+
+	/**
+	 * @param index position of the file, in the order it was first recorded
+	 * @return the id of the file at that position
+	 */
+	public int fileId(int index) {
+		return files[index];
+	}
+
+	/**
+	 * @param index position of the file, in the order it was first recorded
+	 * @return how many times the word occurs in that file
+	 */
+	public int lineCount(int index) {
+		return lineCounts[index];
+	}
+
+	/**
+	 * @param index position of the file, in the order it was first recorded
+	 * @param occurrence which occurrence within that file
+	 * @return the line number of that occurrence
+	 */
+	public int line(int index, int occurrence) {
+		return lines[index][occurrence];
+	}
+
+	private int indexOf(int fileId) {
+		// Words are recorded one file at a time, so the newest file is almost
+		// always the one being looked for.
+		for (int i = fileCount - 1; i >= 0; i--) {
+			if (files[i] == fileId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int addFile(int fileId, int capacity) {
+		if (fileCount == files.length) {
+			int grown = fileCount * 2;
+			files = Arrays.copyOf(files, grown);
+			lineCounts = Arrays.copyOf(lineCounts, grown);
+			lines = Arrays.copyOf(lines, grown);
+		}
+		files[fileCount] = fileId;
+		lines[fileCount] = new int[capacity];
+		return fileCount++;
+	}
+}
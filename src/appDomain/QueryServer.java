@@ -0,0 +1,251 @@
+package appDomain;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serves a loaded {@link WordTracker} over a line protocol, so that a query
+ * costs a lookup rather than the start-up of a new JVM. Clients talk to it on
+ * standard input and output, or over TCP connections to the loopback address.
+ * <p>
+ * Each request is one line. Its response is zero or more report lines
+ * followed by a status line, <code>OK</code> or <code>ERR</code> and a message;
+ * report lines always start with a lower-case word, so they never look like a
+ * status line.
+ * <ul>
+ * <li><code>QUERY &lt;word|prefix*|low..high&gt; [-pf|-pl|-po]</code> reports
+ * the matching words, in <code>-po</code> format by default.</li>
+ * <li><code>INDEX &lt;input&gt;...</code> indexes files or directories and saves
+ * them to the repository.</li>
+ * <li><code>DROP &lt;file&gt;...</code> removes files from the repository.</li>
+ * <li><code>COMPACT</code> compacts the repository.</li>
+ * <li><code>STATS</code> reports how many single-word queries were answered
+ * from the lookup cache and how many missed it.</li>
+ * <li><code>QUIT</code> ends the session, and <code>SHUTDOWN</code> also stops
+ * the server.</li>
+ * </ul>
+ * Any number of queries run at once; a request that changes the index waits
+ * for them to finish and holds off new ones until it is done. The saved
+ * postings of the most recently queried words are cached, and every request
+ * that changes the index clears the cache.
+ */
+class QueryServer {
+	static final int LOOKUP_CACHE_CAPACITY = 4096;
+
+	private final WordTracker tracker;
+	private final int threads;
+	private final ReadWriteLock lock;
+	private volatile ServerSocket serverSocket;
+
+	/**
+	 * @param tracker the tracker to serve
+	 * @param threads the number of threads to index files with
+	 */
+	QueryServer(WordTracker tracker, int threads) {
+		this.tracker = tracker;
+		this.threads = threads;
+		this.lock = new ReentrantReadWriteLock();
+		tracker.setLookupCacheCapacity(LOOKUP_CACHE_CAPACITY);
+	}
+
+	/**
+	 * Accepts connections on a loopback port, serving each on its own thread
+	 * until a client sends <code>SHUTDOWN</code>.
+	 *
+	 * @param port the port to listen on, or 0 for any free port
+	 * @throws IOException if the port cannot be opened
+	 */
+	void listen(int port) throws IOException {
+		ExecutorService clients = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "query-client");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			serverSocket = server;
+			System.err.println("Listening on " + server.getLocalSocketAddress());
+			while (!server.isClosed()) {
+				Socket socket;
+				try {
+					socket = server.accept();
+				} catch (IOException e) {
+					if (server.isClosed()) {
+						break; // closed by SHUTDOWN
+					}
+					throw e;
+				}
+				clients.execute(() -> {
+					try (Socket client = socket) {
+						client.setTcpNoDelay(true);
+						serve(client.getInputStream(), client.getOutputStream());
+					} catch (IOException e) {
+						System.err.println("Error serving client: " + e.getMessage());
+					}
+				});
+			}
+		} finally {
+			clients.shutdown();
+		}
+	}
+
+	/**
+	 * Serves one client until it sends <code>QUIT</code> or
+	 * <code>SHUTDOWN</code>, or closes its input.
+	 *
+	 * @param in the requests
+	 * @param out where responses are written; flushed after each response
+	 *        but not closed
+	 * @throws IOException if the client cannot be read or written
+	 */
+	void serve(InputStream in, OutputStream out) throws IOException {
+		BufferedReader requests = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()));
+		ReportWriter response = new ReportWriter(out);
+		String request;
+		while ((request = requests.readLine()) != null) {
+			request = request.trim();
+			if (request.isEmpty()) {
+				continue;
+			}
+			boolean more = handle(request, response);
+			response.flush();
+			if (!more) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @return false if the session should end
+	 */
+	private boolean handle(String request, ReportWriter response) throws IOException {
+		List<String> arguments = new ArrayList<>(Arrays.asList(request.split("\\s+")));
+		String command = arguments.remove(0).toUpperCase(Locale.ROOT);
+		switch (command) {
+			case "QUERY":
+				query(arguments, response);
+				return true;
+			case "INDEX":
+				index(arguments, response);
+				return true;
+			case "DROP":
+				drop(arguments, response);
+				return true;
+			case "COMPACT":
+				lock.writeLock().lock();
+				try {
+					tracker.compactRepository();
+				} finally {
+					lock.writeLock().unlock();
+				}
+				status(response, "OK", "compacted");
+				return true;
+			case "STATS":
+				status(response, "OK", "hits " + tracker.getLookupCacheHits() + " misses " + tracker.getLookupCacheMisses());
+				return true;
+			case "QUIT":
+				status(response, "OK", "bye");
+				return false;
+			case "SHUTDOWN":
+				status(response, "OK", "shutting down");
+				ServerSocket server = serverSocket;
+				if (server != null) {
+					server.close();
+				}
+				return false;
+			default:
+				status(response, "ERR", "unknown command " + command);
+				return true;
+		}
+	}
+
+	private void query(List<String> arguments, ReportWriter response) throws IOException {
+		if (arguments.isEmpty() || arguments.size() > 2) {
+			status(response, "ERR", "usage: QUERY <word|prefix*|low..high> [-pf|-pl|-po]");
+			return;
+		}
+		String option = arguments.size() == 2 ? arguments.get(1) : "-po";
+		if (!option.equals("-pf") && !option.equals("-pl") && !option.equals("-po")) {
+			status(response, "ERR", "invalid option " + option);
+			return;
+		}
+		lock.readLock().lock();
+		try {
+			tracker.query(arguments.get(0), option, response, 1);
+		} finally {
+			lock.readLock().unlock();
+		}
+		status(response, "OK", "");
+	}
+
+	private void index(List<String> inputs, ReportWriter response) throws IOException {
+		if (inputs.isEmpty()) {
+			status(response, "ERR", "usage: INDEX <input>...");
+			return;
+		}
+		for (String input : inputs) {
+			if (!Files.exists(Paths.get(input))) {
+				status(response, "ERR", "not found: " + input);
+				return;
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			tracker.processFiles(inputs, threads);
+			tracker.saveRepository();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		status(response, "OK", "indexed " + inputs.size());
+	}
+
+	private void drop(List<String> files, ReportWriter response) throws IOException {
+		if (files.isEmpty()) {
+			status(response, "ERR", "usage: DROP <file>...");
+			return;
+		}
+		List<String> missing = new ArrayList<>();
+		lock.writeLock().lock();
+		try {
+			for (String file : files) {
+				if (!tracker.dropFile(file)) {
+					missing.add(file);
+				}
+			}
+			if (missing.size() < files.size()) {
+				tracker.saveRepository();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		if (missing.isEmpty()) {
+			status(response, "OK", "dropped " + files.size());
+		} else {
+			status(response, "ERR", "not indexed: " + String.join(" ", missing));
+		}
+	}
+
+	private static void status(ReportWriter response, String status, String message) throws IOException {
+		response.write(status);
+		if (!message.isEmpty()) {
+			response.write(' ').write(message);
+		}
+		response.newLine();
+	}
+}
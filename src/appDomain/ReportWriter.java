@@ -0,0 +1,213 @@
+package appDomain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffered output for reports. Text and numbers are formatted straight into
+ * one reusable byte buffer, which is written to a channel whenever it fills,
+ * so writing a report allocates nothing per word or per line.
+ * <p>
+ * The bytes are those a <code>PrintWriter</code> would have produced: text in
+ * the default charset and lines ended by <code>System.lineSeparator()</code>.
+ * ASCII text, which is every word and almost every file name, is copied one
+ * byte per char without going through an encoder.
+ * <p>
+ * A writer can also collect its output in memory, handing each full buffer
+ * off instead of reusing it, so that separately formatted parts of a report
+ * can be written out in order without copying them again.
+ */
+class ReportWriter implements Closeable {
+	private static final int BUFFER_SIZE = 1 << 18;
+	private static final byte[] MIN_INT = Integer.toString(Integer.MIN_VALUE).getBytes(Charset.defaultCharset());
+
+	private final WritableByteChannel channel; // null when collecting in memory
+	private final OutputStream stream; // flushed but never closed; null for a file
+	private final List<byte[]> collected;
+	private final Charset charset;
+	private final byte[] lineSeparator;
+	private byte[] buffer;
+	private int used;
+
+	/**
+	 * Creates a writer that collects its output in memory until it is
+	 * written out with {@link #writeTo(ReportWriter)}.
+	 */
+	ReportWriter() {
+		this(null, null);
+	}
+
+	/**
+	 * @param stream the stream to write to, which {@link #close()} flushes
+	 *        but leaves open
+	 */
+	ReportWriter(OutputStream stream) {
+		this(Channels.newChannel(stream), stream);
+	}
+
+	private ReportWriter(WritableByteChannel channel, OutputStream stream) {
+		this.channel = channel;
+		this.stream = stream;
+		this.collected = channel == null ? new ArrayList<byte[]>() : null;
+		this.charset = Charset.defaultCharset();
+		this.lineSeparator = System.lineSeparator().getBytes(charset);
+		this.buffer = new byte[BUFFER_SIZE];
+	}
+
+	/**
+	 * Opens a report file, replacing any existing file, or standard output.
+	 *
+	 * @param outputFile the file to write to, or null for standard output
+	 * @return a writer for it
+	 * @throws IOException if the file cannot be opened
+	 */
+	static ReportWriter open(String outputFile) throws IOException {
+		if (outputFile == null) {
+			return new ReportWriter(System.out);
+		}
+		FileChannel file = FileChannel.open(Paths.get(outputFile),
+			StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		return new ReportWriter(file, null);
+	}
+
+	ReportWriter write(String text) throws IOException {
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c >= 0x80) {
+				return write(text.substring(i).getBytes(charset));
+			}
+			if (used == buffer.length) {
+				drain();
+			}
+			buffer[used++] = (byte) c;
+		}
+		return this;
+	}
+
+	ReportWriter write(char c) throws IOException {
+		if (c >= 0x80) {
+			return write(String.valueOf(c));
+		}
+		if (used == buffer.length) {
+			drain();
+		}
+		buffer[used++] = (byte) c;
+		return this;
+	}
+
+	/**
+	 * Writes a number in decimal, as <code>String.valueOf(int)</code> would.
+	 */
+	ReportWriter write(int number) throws IOException {
+		if (number == Integer.MIN_VALUE) {
+			return write(MIN_INT);
+		}
+		if (buffer.length - used < 11) {
+			drain();
+		}
+		if (number < 0) {
+			buffer[used++] = '-';
+			number = -number;
+		}
+		int digits = 1;
+		for (int rest = number / 10; rest > 0; rest /= 10) {
+			digits++;
+		}
+		for (int i = used + digits - 1; i >= used; i--) {
+			buffer[i] = (byte) ('0' + number % 10);
+			number /= 10;
+		}
+		used += digits;
+		return this;
+	}
+
+	ReportWriter newLine() throws IOException {
+		return write(lineSeparator);
+	}
+
+	private ReportWriter write(byte[] bytes) throws IOException {
+		if (bytes.length > buffer.length - used) {
+			drain();
+			if (bytes.length >= buffer.length) {
+				send(bytes, bytes.length);
+				return this;
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, used, bytes.length);
+		used += bytes.length;
+		return this;
+	}
+
+	/**
+	 * Writes everything this writer has collected in memory to another writer.
+	 *
+	 * @param target the writer to write to
+	 * @throws IOException if the target cannot be written
+	 */
+	void writeTo(ReportWriter target) throws IOException {
+		drain();
+		for (byte[] bytes : collected) {
+			target.write(bytes);
+		}
+		collected.clear();
+	}
+
+	/**
+	 * Writes out everything buffered so far.
+	 *
+	 * @throws IOException if the channel cannot be written
+	 */
+	void flush() throws IOException {
+		drain();
+		if (stream != null) {
+			stream.flush();
+		}
+	}
+
+	private void drain() throws IOException {
+		if (used == 0) {
+			return;
+		}
+		if (collected != null && used == buffer.length) {
+			collected.add(buffer);
+			buffer = new byte[BUFFER_SIZE];
+		} else {
+			send(buffer, used);
+		}
+		used = 0;
+	}
+
+	private void send(byte[] bytes, int length) throws IOException {
+		if (collected != null) {
+			collected.add(Arrays.copyOf(bytes, length));
+			return;
+		}
+		ByteBuffer wrapped = ByteBuffer.wrap(bytes, 0, length);
+		while (wrapped.hasRemaining()) {
+			channel.write(wrapped);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			if (channel != null && stream == null) {
+				channel.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,293 @@
+package appDomain;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only store of repository files kept in one directory.
+ * <p>
+ * <code>base-N.idx</code> holds the compacted index. Every save adds a new
+ * <code>seg-N.idx</code> segment holding only the words and postings of that
+ * run, where N is an increasing generation number. Reads merge the base and
+ * the segments in generation order. A segment can also drop files, which hides
+ * their postings in every older file; this is how a file is removed or
+ * replaced without rewriting anything written before. {@link #compact()}
+ * folds everything into a new base named after the newest generation it
+ * contains, leaving out dropped postings and words that have none left.
+ * <p>
+ * Every file is written under a temporary name and atomically renamed into
+ * place, and never over an existing file, since some systems cannot replace or
+ * delete a file while it is mapped. A crash can therefore leave a temporary
+ * file behind, or segments and bases that a newer base already covers; these
+ * are recognised and removed the next time the repository is opened, as are
+ * files that were still mapped when they were superseded. Only one process
+ * may write at a time.
+ */
+class Repository {
+	static final int MAX_SEGMENTS = 8;
+	private static final Pattern BASE_FILE = Pattern.compile("base-(\\d+)\\.idx");
+	private static final Pattern SEGMENT_FILE = Pattern.compile("seg-(\\d+)\\.idx");
+
+	private final Path directory;
+	private RepositoryIndex base;
+	private final List<RepositoryIndex> segments;
+
+	private Repository(Path directory) {
+		this.directory = directory;
+		this.segments = new ArrayList<>();
+	}
+
+	/**
+	 * Opens the repository in a directory, creating the directory if needed.
+	 *
+	 * @param directory the repository directory
+	 * @return the opened repository
+	 * @throws IOException if a repository file cannot be read
+	 */
+	static Repository open(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		Repository repository = new Repository(directory);
+		repository.reload();
+		return repository;
+	}
+
+	/**
+	 * @return true if nothing has been saved to the repository yet
+	 */
+	boolean isEmpty() {
+		return base == null && segments.isEmpty();
+	}
+
+	int segmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * The file table of the newest file. File ids are only ever appended, so
+	 * it covers the ids used by every older file as well.
+	 *
+	 * @return the names of all indexed files, by file id
+	 */
+	List<String> fileNames() {
+		if (!segments.isEmpty()) {
+			return segments.get(segments.size() - 1).fileNames();
+		}
+		return base == null ? Collections.<String>emptyList() : base.fileNames();
+	}
+
+	/**
+	 * @param laterDrops files dropped by a source newer than the repository,
+	 *        whose saved postings should be hidden as well
+	 * @return a cursor over every saved word, oldest postings first
+	 */
+	IndexCursor cursor(BitSet laterDrops) {
+		// Walk from the newest file to the oldest, collecting the files that
+		// newer files dropped.
+		IndexCursor[] sources = new IndexCursor[segments.size() + 1];
+		BitSet dropped = (BitSet) laterDrops.clone();
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			sources[i + 1] = masked(segments.get(i).cursor(), dropped);
+			dropped.or(segments.get(i).droppedFiles());
+		}
+		if (base != null) {
+			sources[0] = masked(base.cursor(), dropped);
+		}
+		List<IndexCursor> present = new ArrayList<>();
+		for (IndexCursor source : sources) {
+			if (source != null) {
+				present.add(source);
+			}
+		}
+		return new MergingCursor(present);
+	}
+
+	/**
+	 * Finds a single word in every repository file, hiding postings as
+	 * {@link #cursor(BitSet)} does, without merging the files.
+	 *
+	 * @param word the word to find
+	 * @param laterDrops files dropped by a source newer than the repository
+	 * @return the word's postings, oldest first, or null if none are left
+	 */
+	Postings lookup(String word, BitSet laterDrops) {
+		Postings[] found = new Postings[segments.size() + 1];
+		BitSet dropped = (BitSet) laterDrops.clone();
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			found[i + 1] = visible(segments.get(i).lookup(word), dropped);
+			dropped.or(segments.get(i).droppedFiles());
+		}
+		if (base != null) {
+			found[0] = visible(base.lookup(word), dropped);
+		}
+		Postings postings = null;
+		for (Postings source : found) {
+			if (postings == null) {
+				postings = source;
+			} else if (source != null) {
+				// Every lookup decodes new postings, so they can be added to.
+				postings.addAll(source);
+			}
+		}
+		return postings;
+	}
+
+	private static Postings visible(Postings postings, BitSet dropped) {
+		if (postings == null) {
+			return null;
+		}
+		postings = postings.without(dropped);
+		return postings.fileCount() == 0 ? null : postings;
+	}
+
+	/**
+	 * Picks words that split a range of words into parts of similar size,
+	 * judged by the largest repository file, which usually holds most words.
+	 *
+	 * @see RepositoryIndex#splitWords(String, String, int)
+	 */
+	List<String> splitWords(String low, String high, int parts) {
+		RepositoryIndex largest = base;
+		for (RepositoryIndex segment : segments) {
+			if (largest == null || segment.wordCount() > largest.wordCount()) {
+				largest = segment;
+			}
+		}
+		return largest == null ? Collections.<String>emptyList() : largest.splitWords(low, high, parts);
+	}
+
+	/**
+	 * @return the number of words in the largest repository file
+	 */
+	int largestWordCount() {
+		int largest = base == null ? 0 : base.wordCount();
+		for (RepositoryIndex segment : segments) {
+			largest = Math.max(largest, segment.wordCount());
+		}
+		return largest;
+	}
+
+	private static IndexCursor masked(IndexCursor cursor, BitSet dropped) {
+		return dropped.isEmpty() ? cursor : new MaskingCursor(cursor, (BitSet) dropped.clone());
+	}
+
+	/**
+	 * Writes the given words as a new segment. Only the words passed in are
+	 * written, so the cost depends on the size of the run, not the repository.
+	 *
+	 * @param words the words to save, in ascending order
+	 * @param fileNames the complete file table, by file id
+	 * @param droppedFiles files whose older postings the segment replaces
+	 * @throws IOException if the segment cannot be written
+	 */
+	void append(IndexCursor words, List<String> fileNames, BitSet droppedFiles) throws IOException {
+		long generation = newestGeneration() + 1;
+		write(words, fileNames, droppedFiles, segmentFile(generation), generation);
+		reload();
+	}
+
+	/**
+	 * Merges the base and every segment into a new base and deletes the
+	 * segments.
+	 *
+	 * @throws IOException if the new base cannot be written
+	 */
+	void compact() throws IOException {
+		if (segments.isEmpty()) {
+			return;
+		}
+		long generation = newestGeneration();
+		write(cursor(new BitSet()), fileNames(), new BitSet(), baseFile(generation), generation);
+		// The new base covers the old base and every segment, which reload()
+		// lets go of and deletes.
+		reload();
+	}
+
+	private Path baseFile(long generation) {
+		return directory.resolve(String.format("base-%010d.idx", generation));
+	}
+
+	private Path segmentFile(long generation) {
+		return directory.resolve(String.format("seg-%010d.idx", generation));
+	}
+
+	private long newestGeneration() {
+		if (!segments.isEmpty()) {
+			return segments.get(segments.size() - 1).generation();
+		}
+		return base == null ? 0 : base.generation();
+	}
+
+	private static void write(IndexCursor words, List<String> fileNames, BitSet droppedFiles, Path target, long generation) throws IOException {
+		try (RepositoryWriter writer = new RepositoryWriter(target, fileNames, droppedFiles, generation)) {
+			while (words.next()) {
+				writer.write(words.word(), words.postings());
+			}
+			writer.commit();
+		}
+	}
+
+	private void reload() throws IOException {
+		// Drop the mappings of the files read so far, so that superseded ones
+		// can be deleted once they are unmapped.
+		base = null;
+		segments.clear();
+
+		List<Long> bases = new ArrayList<>();
+		List<Long> generations = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				Matcher segment = SEGMENT_FILE.matcher(name);
+				Matcher compacted = BASE_FILE.matcher(name);
+				if (name.endsWith(".tmp")) {
+					discard(file); // left behind by an interrupted save
+				} else if (segment.matches()) {
+					generations.add(Long.parseLong(segment.group(1)));
+				} else if (compacted.matches()) {
+					bases.add(Long.parseLong(compacted.group(1)));
+				}
+			}
+		}
+		Collections.sort(bases);
+		Collections.sort(generations);
+
+		// The newest base supersedes every other base.
+		if (!bases.isEmpty()) {
+			long newest = bases.remove(bases.size() - 1);
+			base = RepositoryIndex.open(baseFile(newest));
+			for (long generation : bases) {
+				discard(baseFile(generation));
+			}
+		}
+		long baseGeneration = base == null ? 0 : base.generation();
+
+		for (long generation : generations) {
+			Path file = segmentFile(generation);
+			if (generation <= baseGeneration) {
+				discard(file); // already compacted into the base
+			} else {
+				segments.add(RepositoryIndex.open(file));
+			}
+		}
+	}
+
+	/**
+	 * Deletes a file that is no longer read. A file that cannot be deleted
+	 * yet, typically because it is still mapped, is left for a later reload.
+	 */
+	private static void discard(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// Still in use; the next reload tries again.
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and varint helpers shared by {@link RepositoryWriter} and
+ * {@link RepositoryIndex}.
+ * <p>
+ * A repository file is laid out as follows. All fixed-width numbers are big
+ * endian; "varint" is an unsigned LEB128 integer.
+ * <pre>
+ * header      int magic, int version, int wordCount, int fileCount,
+ *             int blockCount, long blocksOffset, long indexOffset,
+ *             long generation
+ * file table  fileCount x (varint length, UTF-8 bytes)
+ * dropped     varint count, count x varint fileId
+ * blocks      wordCount entries in ascending order, grouped BLOCK_SIZE to a block
+ * index       blockCount x long offset of each block
+ * </pre>
+ * The dropped list names files that were removed or re-indexed when this
+ * file was written; their postings in older repository files no longer count.
+ * Each entry is front-coded against the previous word of its block (the first
+ * word of a block is stored in full) and followed by its postings:
+ * <pre>
+ * varint shared, varint suffixLength, suffix bytes,
+ * varint postingsLength, varint fileCount,
+ * fileCount x (varint fileId, varint lineCount, lineCount x zigzag varint delta)
+ * </pre>
+ */
+final class RepositoryFormat {
+	static final int MAGIC = 0x5754524B; // "WTRK"
+	static final int VERSION = 3;
+	static final int HEADER_SIZE = 44;
+	static final int BLOCK_SIZE = 16;
+	static final long MAX_FILE_SIZE = Integer.MAX_VALUE; // the most one mapping can hold
+
+	private RepositoryFormat() {
+	}
+
+	static void writeVarint(OutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	static int readVarint(ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("Malformed varint in repository file.");
+	}
+
+	/**
+	 * Maps signed deltas to unsigned values so small negative numbers stay
+	 * short when written as varints.
+	 */
+	static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
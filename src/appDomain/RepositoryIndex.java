@@ -0,0 +1,291 @@
+package appDomain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only view of a repository file that is memory-mapped rather than read
+ * into the heap. Opening it only parses the header and file table, so the
+ * cost does not grow with the number of words. Words and postings are decoded
+ * on demand, either one at a time through {@link #lookup(String)} or in order
+ * through {@link #cursor()}.
+ */
+class RepositoryIndex {
+	private final ByteBuffer buffer;
+	private final int wordCount;
+	private final int blockCount;
+	private final long blocksOffset;
+	private final long indexOffset;
+	private final long generation;
+	private final List<String> fileNames;
+	private final BitSet droppedFiles;
+
+	private RepositoryIndex(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.capacity() < RepositoryFormat.HEADER_SIZE || buffer.getInt(0) != RepositoryFormat.MAGIC) {
+			throw new IOException("Not a repository file.");
+		}
+		int version = buffer.getInt(4);
+		if (version != RepositoryFormat.VERSION) {
+			throw new IOException("Unsupported repository version " + version + ".");
+		}
+		wordCount = buffer.getInt(8);
+		int fileCount = buffer.getInt(12);
+		blockCount = buffer.getInt(16);
+		blocksOffset = buffer.getLong(20);
+		indexOffset = buffer.getLong(28);
+		generation = buffer.getLong(36);
+		if (indexOffset + 8L * blockCount != buffer.capacity()) {
+			throw new IOException("Truncated repository file.");
+		}
+
+		ByteBuffer in = buffer.duplicate();
+		in.position(RepositoryFormat.HEADER_SIZE);
+		List<String> names = new ArrayList<>(fileCount);
+		for (int i = 0; i < fileCount; i++) {
+			byte[] name = new byte[RepositoryFormat.readVarint(in)];
+			in.get(name);
+			names.add(new String(name, StandardCharsets.UTF_8));
+		}
+		fileNames = Collections.unmodifiableList(names);
+		droppedFiles = new BitSet();
+		for (int i = RepositoryFormat.readVarint(in); i > 0; i--) {
+			droppedFiles.set(RepositoryFormat.readVarint(in));
+		}
+	}
+
+	/**
+	 * Maps a repository file and reads its header and file table.
+	 *
+	 * @param file the repository file
+	 * @return the mapped index
+	 * @throws IOException if the file is missing, too large to map or not a
+	 *         repository
+	 */
+	static RepositoryIndex open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > RepositoryFormat.MAX_FILE_SIZE) {
+				throw new IOException("Repository file is too large to map.");
+			}
+			// The mapping stays valid after the channel is closed.
+			return new RepositoryIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	List<String> fileNames() {
+		return fileNames;
+	}
+
+	/**
+	 * @return the ids of the files whose postings in older repository files
+	 *         this file overrides; the caller must not modify the set
+	 */
+	BitSet droppedFiles() {
+		return droppedFiles;
+	}
+
+	int wordCount() {
+		return wordCount;
+	}
+
+	/**
+	 * @return the generation this file was written as; see {@link Repository}
+	 */
+	long generation() {
+		return generation;
+	}
+
+	/**
+	 * Finds a single word by binary searching the block index and then
+	 * scanning one block.
+	 *
+	 * @param word the word to find
+	 * @return the word's postings, or null if the word is not in the index
+	 */
+	Postings lookup(String word) {
+		Cursor cursor = new Cursor();
+		cursor.seek(word);
+		return cursor.next() && cursor.word().equals(word) ? cursor.postings() : null;
+	}
+
+	/**
+	 * Picks words that split the words from low up to but not including high
+	 * into about the given number of ranges of similar size. The words are
+	 * first words of blocks, so finding them decodes one word per block
+	 * searched or picked.
+	 *
+	 * @param low the smallest word of the whole range, or null for no bound
+	 * @param high the word after the whole range, or null for no bound
+	 * @param parts the number of ranges wanted
+	 * @return up to parts - 1 ascending words strictly between low and high
+	 */
+	List<String> splitWords(String low, String high, int parts) {
+		Cursor cursor = new Cursor();
+		int first = low == null ? 0 : cursor.blockBefore(low, true);
+		int end = high == null ? blockCount : cursor.blockBefore(high, false) + 1;
+		List<String> words = new ArrayList<>();
+		int previous = first;
+		for (int i = 1; i < parts; i++) {
+			int block = first + (int) ((long) (end - first) * i / parts);
+			if (block > previous && block < end) {
+				cursor.seekBlock(block);
+				cursor.readWord();
+				words.add(cursor.word());
+				previous = block;
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * @return a cursor over every word in ascending order
+	 */
+	IndexCursor cursor() {
+		Cursor cursor = new Cursor();
+		cursor.seekBlock(0);
+		return cursor;
+	}
+
+	/**
+	 * Decodes entries from a private view of the mapped buffer.
+	 */
+	private class Cursor implements IndexCursor {
+		private final ByteBuffer in = buffer.duplicate();
+		private byte[] wordBytes = new byte[64];
+		private int[] lines = new int[64];
+		private int entry;
+		private int blockEnd;
+		private boolean pending; // word read by seek() but not yet returned
+		private String word;
+		private Postings postings;
+
+		void seekBlock(int block) {
+			entry = block * RepositoryFormat.BLOCK_SIZE;
+			blockEnd = Math.min(entry + RepositoryFormat.BLOCK_SIZE, wordCount);
+			if (block < blockCount) {
+				in.position((int) buffer.getLong((int) (indexOffset + 8L * block)));
+			} else {
+				in.position((int) blocksOffset);
+			}
+		}
+
+		boolean hasMoreInBlock() {
+			return entry < blockEnd;
+		}
+
+		@Override
+		public boolean next() {
+			if (pending) {
+				pending = false;
+				readPostings();
+				return true;
+			}
+			if (entry >= wordCount) {
+				return false;
+			}
+			readWord();
+			readPostings();
+			return true;
+		}
+
+		/**
+		 * Binary searches the first words of the blocks for the last block
+		 * that can hold the word, then scans that block. If the whole block is
+		 * smaller, the cursor is left at the start of the next block, whose
+		 * first word is larger.
+		 */
+		@Override
+		public void seek(String target) {
+			pending = false;
+			seekBlock(Math.max(0, blockBefore(target, true)));
+			while (hasMoreInBlock()) {
+				readWord();
+				if (word.compareTo(target) >= 0) {
+					pending = true;
+					return;
+				}
+				skipPostings();
+			}
+		}
+
+		/**
+		 * Binary searches the first words of the blocks for the last block
+		 * whose first word is less than, or if inclusive also equal to, the
+		 * target.
+		 *
+		 * @return that block, or -1 if there is none
+		 */
+		int blockBefore(String target, boolean inclusive) {
+			int low = 0;
+			int high = blockCount - 1;
+			int block = -1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				seekBlock(middle);
+				readWord();
+				int comparison = word.compareTo(target);
+				if (comparison < 0 || (inclusive && comparison == 0)) {
+					block = middle;
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+			return block;
+		}
+
+		void readWord() {
+			int shared = RepositoryFormat.readVarint(in);
+			int suffix = RepositoryFormat.readVarint(in);
+			if (shared + suffix > wordBytes.length) {
+				wordBytes = Arrays.copyOf(wordBytes, Math.max(shared + suffix, wordBytes.length * 2));
+			}
+			in.get(wordBytes, shared, suffix);
+			word = new String(wordBytes, 0, shared + suffix, StandardCharsets.UTF_8);
+			entry++;
+		}
+
+		void skipPostings() {
+			int length = RepositoryFormat.readVarint(in);
+			in.position(in.position() + length);
+		}
+
+		void readPostings() {
+			RepositoryFormat.readVarint(in); // postingsLength, only needed to skip
+			int fileCount = RepositoryFormat.readVarint(in);
+			postings = new Postings();
+			for (int i = 0; i < fileCount; i++) {
+				int fileId = RepositoryFormat.readVarint(in);
+				int lineCount = RepositoryFormat.readVarint(in);
+				if (lineCount > lines.length) {
+					lines = new int[Math.max(lineCount, lines.length * 2)];
+				}
+				int line = 0;
+				for (int j = 0; j < lineCount; j++) {
+					line += RepositoryFormat.unzigzag(RepositoryFormat.readVarint(in));
+					lines[j] = line;
+				}
+				postings.addLines(fileId, lines, lineCount);
+			}
+		}
+
+		@Override
+		public String word() {
+			return word;
+		}
+
+		@Override
+		public Postings postings() {
+			return postings;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package appDomain;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Writes a repository file in a single sequential pass. Words must be written
+ * in ascending order. Output goes to a temporary file next to the target, and
+ * {@link #commit()} atomically renames it over the target, so a failed or
+ * interrupted save leaves the previous repository intact. A file too large to
+ * be mapped fails the same way, as soon as it grows past the limit.
+ */
+class RepositoryWriter implements Closeable {
+	private final Path target;
+	private final Path temp;
+	private final OutputStream out;
+	private final ByteArrayOutputStream entry;
+	private final ByteArrayOutputStream postingsBytes;
+	private final int fileCount;
+	private final long generation;
+	private long position;
+	private int wordCount;
+	private long[] blockOffsets;
+	private byte[] previous;
+	private boolean committed;
+
+	RepositoryWriter(Path target, List<String> fileNames, BitSet droppedFiles, long generation) throws IOException {
+		this.target = target;
+		this.generation = generation;
+		this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+		this.out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16);
+		this.entry = new ByteArrayOutputStream();
+		this.postingsBytes = new ByteArrayOutputStream();
+		this.fileCount = fileNames.size();
+		this.blockOffsets = new long[16];
+		this.previous = new byte[0];
+
+		// The header is patched with the final counts and offsets on commit.
+		out.write(new byte[RepositoryFormat.HEADER_SIZE]);
+		position = RepositoryFormat.HEADER_SIZE;
+		for (String name : fileNames) {
+			byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+			RepositoryFormat.writeVarint(entry, bytes.length);
+			entry.write(bytes);
+		}
+		RepositoryFormat.writeVarint(entry, droppedFiles.cardinality());
+		for (int id = droppedFiles.nextSetBit(0); id >= 0; id = droppedFiles.nextSetBit(id + 1)) {
+			RepositoryFormat.writeVarint(entry, id);
+		}
+		flushEntry();
+	}
+
+	/**
+	 * Appends a word and its postings. Words must arrive in ascending order.
+	 *
+	 * @param word the word to write
+	 * @param postings where the word occurs
+	 * @throws IOException if the entry cannot be written
+	 */
+	void write(String word, Postings postings) throws IOException {
+		byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+		int shared = 0;
+		if (wordCount % RepositoryFormat.BLOCK_SIZE == 0) {
+			int block = wordCount / RepositoryFormat.BLOCK_SIZE;
+			if (block == blockOffsets.length) {
+				blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+			}
+			blockOffsets[block] = position;
+		} else {
+			int limit = Math.min(bytes.length, previous.length);
+			while (shared < limit && bytes[shared] == previous[shared]) {
+				shared++;
+			}
+		}
+		RepositoryFormat.writeVarint(entry, shared);
+		RepositoryFormat.writeVarint(entry, bytes.length - shared);
+		entry.write(bytes, shared, bytes.length - shared);
+
+		postingsBytes.reset();
+		RepositoryFormat.writeVarint(postingsBytes, postings.fileCount());
+		for (int i = 0; i < postings.fileCount(); i++) {
+			RepositoryFormat.writeVarint(postingsBytes, postings.fileId(i));
+			RepositoryFormat.writeVarint(postingsBytes, postings.lineCount(i));
+			int last = 0;
+			for (int j = 0; j < postings.lineCount(i); j++) {
+				int line = postings.line(i, j);
+				RepositoryFormat.writeVarint(postingsBytes, RepositoryFormat.zigzag(line - last));
+				last = line;
+			}
+		}
+		RepositoryFormat.writeVarint(entry, postingsBytes.size());
+		postingsBytes.writeTo(entry);
+		flushEntry();
+
+		previous = bytes;
+		wordCount++;
+	}
+
+	/**
+	 * Writes the block index and header, then atomically replaces the target
+	 * file with the newly written one.
+	 *
+	 * @throws IOException if the file cannot be completed or renamed
+	 */
+	void commit() throws IOException {
+		int blockCount = (wordCount + RepositoryFormat.BLOCK_SIZE - 1) / RepositoryFormat.BLOCK_SIZE;
+		long blocksOffset = blockCount == 0 ? position : blockOffsets[0];
+		long indexOffset = position;
+		checkSize(indexOffset + 8L * blockCount);
+		ByteBuffer index = ByteBuffer.allocate(blockCount * 8);
+		for (int i = 0; i < blockCount; i++) {
+			index.putLong(blockOffsets[i]);
+		}
+		out.write(index.array());
+		out.close();
+
+		ByteBuffer header = ByteBuffer.allocate(RepositoryFormat.HEADER_SIZE);
+		header.putInt(RepositoryFormat.MAGIC)
+			.putInt(RepositoryFormat.VERSION)
+			.putInt(wordCount)
+			.putInt(fileCount)
+			.putInt(blockCount)
+			.putLong(blocksOffset)
+			.putLong(indexOffset)
+			.putLong(generation)
+			.flip();
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			channel.force(true);
+		}
+		Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		committed = true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!committed) {
+			out.close();
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private void flushEntry() throws IOException {
+		checkSize(position + entry.size());
+		entry.writeTo(out);
+		position += entry.size();
+		entry.reset();
+	}
+
+	/**
+	 * Fails before a file is written that {@link RepositoryIndex#open(Path)}
+	 * could not map, while the files it would replace are still in place.
+	 */
+	private static void checkSize(long size) throws IOException {
+		if (size > RepositoryFormat.MAX_FILE_SIZE) {
+			throw new IOException("Repository file is too large to map.");
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits UTF-8 text into lower-case words without allocating per line or per
+ * token.
+ * <p>
+ * The output matches the previous <code>Scanner.nextLine()</code> followed by
+ * <code>split("\\W+")</code> and <code>toLowerCase()</code>: a word is a run of
+ * the ASCII characters <code>[A-Za-z0-9_]</code>, everything else separates
+ * words, and lines end at <code>\r\n</code>, <code>\n</code>, <code>\r</code>,
+ * U+0085, U+2028 or U+2029. Lower-casing is done in place on the ASCII bytes,
+ * so it does not depend on the default locale.
+ * <p>
+ * Tokens are interned in a table owned by the tokenizer, so a word that has
+ * been seen before is returned as the same String without allocating. The
+ * table can be limited in size, in which case it is emptied whenever it fills
+ * up. A tokenizer is not thread-safe, but can be reused for any number of
+ * inputs.
+ */
+public class Tokenizer {
+
+	/**
+	 * Receives the tokens of an input in order.
+	 */
+	public interface Sink {
+		void token(String word, int line);
+	}
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// Scanner state, kept between buffers of one input.
+	private byte[] word = new byte[32];
+	private int wordLength;
+	private int wordHash;
+	private int line;
+	private boolean afterCarriageReturn;
+	private int pendingUtf8; // 0, or the lead bytes seen of U+0085 / U+2028 / U+2029
+
+	// Intern table: open addressing keyed by the bytes of the word.
+	private String[] strings = new String[1024];
+	private int[] hashes = new int[1024];
+	private int interned;
+	private final int internLimit;
+
+	private byte[] buffer;
+
+	public Tokenizer() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param internLimit the most distinct words to keep interned at once
+	 */
+	public Tokenizer(int internLimit) {
+		if (internLimit < 1) {
+			throw new IllegalArgumentException("Intern limit must be at least 1.");
+		}
+		this.internLimit = internLimit;
+	}
+
+	/**
+	 * Reads an input to the end and passes each word to the sink.
+	 *
+	 * @param in the UTF-8 text to split; not closed by this method
+	 * @param sink receives every word with its 1-based line number
+	 * @return the number of the last line, one more than the number of line
+	 *         terminators read
+	 * @throws IOException if the input cannot be read
+	 */
+	public int tokenize(InputStream in, Sink sink) throws IOException {
+		if (buffer == null) {
+			buffer = new byte[BUFFER_SIZE];
+		}
+		start();
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			scan(buffer, 0, read, sink);
+		}
+		return finish(sink);
+	}
+
+	/**
+	 * Splits a range of a byte array and passes each word to the sink.
+	 *
+	 * @param data the UTF-8 text to split
+	 * @param offset index of the first byte
+	 * @param length number of bytes to split
+	 * @param sink receives every word with its 1-based line number
+	 * @return the number of the last line, one more than the number of line
+	 *         terminators in the range
+	 */
+	public int tokenize(byte[] data, int offset, int length, Sink sink) {
+		start();
+		scan(data, offset, offset + length, sink);
+		return finish(sink);
+	}
+
+	private void start() {
+		wordLength = 0;
+		wordHash = 0;
+		line = 1;
+		afterCarriageReturn = false;
+		pendingUtf8 = 0;
+	}
+
+	private int finish(Sink sink) {
+		if (wordLength > 0) {
+			emit(sink);
+		}
+		return line;
+	}
+
+	private void scan(byte[] data, int offset, int end, Sink sink) {
+		for (int i = offset; i < end; i++) {
+			int b = data[i];
+			if (b >= 'A' && b <= 'Z') {
+				b += 'a' - 'A';
+			}
+			if ((b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '_') {
+				if (wordLength == word.length) {
+					word = Arrays.copyOf(word, wordLength * 2);
+				}
+				word[wordLength++] = (byte) b;
+				wordHash = 31 * wordHash + b;
+				afterCarriageReturn = false;
+				pendingUtf8 = 0;
+				continue;
+			}
+			if (wordLength > 0) {
+				emit(sink);
+			}
+			separator(b & 0xFF);
+		}
+	}
+
+	/**
+	 * Tracks line terminators among the separator bytes, including the
+	 * multi-byte UTF-8 encodings of U+0085, U+2028 and U+2029.
+	 */
+	private void separator(int b) {
+		if (b == '\n') {
+			if (!afterCarriageReturn) {
+				line++;
+			}
+			afterCarriageReturn = false;
+			pendingUtf8 = 0;
+			return;
+		}
+		afterCarriageReturn = false;
+		if (b == '\r') {
+			line++;
+			afterCarriageReturn = true;
+			pendingUtf8 = 0;
+		} else if (pendingUtf8 == 0xC2 && b == 0x85) {
+			line++;
+			pendingUtf8 = 0;
+		} else if (pendingUtf8 == 0xE2 && b == 0x80) {
+			pendingUtf8 = 0xE280;
+		} else if (pendingUtf8 == 0xE280 && (b == 0xA8 || b == 0xA9)) {
+			line++;
+			pendingUtf8 = 0;
+		} else {
+			pendingUtf8 = (b == 0xC2 || b == 0xE2) ? b : 0;
+		}
+	}
+
+	private void emit(Sink sink) {
+		sink.token(intern(), line);
+		wordLength = 0;
+		wordHash = 0;
+	}
+
+	private String intern() {
+		int mask = strings.length - 1;
+		int slot = wordHash & mask;
+		String candidate;
+		while ((candidate = strings[slot]) != null) {
+			if (hashes[slot] == wordHash && matches(candidate)) {
+				return candidate;
+			}
+			slot = (slot + 1) & mask;
+		}
+		String created = new String(word, 0, wordLength, StandardCharsets.US_ASCII);
+		if (interned == internLimit) {
+			Arrays.fill(strings, null);
+			interned = 0;
+			slot = wordHash & mask;
+		}
+		strings[slot] = created;
+		hashes[slot] = wordHash;
+		if (++interned * 2 > strings.length) {
+			grow();
+		}
+		return created;
+	}
+
+	private boolean matches(String candidate) {
+		if (candidate.length() != wordLength) {
+			return false;
+		}
+		for (int i = 0; i < wordLength; i++) {
+			if (candidate.charAt(i) != word[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void grow() {
+		String[] oldStrings = strings;
+		int[] oldHashes = hashes;
+		strings = new String[oldStrings.length * 2];
+		hashes = new int[oldStrings.length * 2];
+		int mask = strings.length - 1;
+		for (int i = 0; i < oldStrings.length; i++) {
+			if (oldStrings[i] != null) {
+				int slot = oldHashes[i] & mask;
+				while (strings[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				strings[slot] = oldStrings[i];
+				hashes[slot] = oldHashes[i];
+			}
+		}
+	}
+}
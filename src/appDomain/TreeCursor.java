@@ -0,0 +1,43 @@
+package appDomain;
+
+import implementations.BSTree;
+import implementations.BSTreeIterator;
+import implementations.BSTreeNode;
+
+/**
+ * Cursor over a word tree whose nodes hold {@link Postings} values.
+ */
+class TreeCursor implements IndexCursor {
+	private final BSTree<String> tree;
+	private BSTreeIterator<String> iterator;
+	private BSTreeNode<String> node;
+
+	TreeCursor(BSTree<String> tree) {
+		this.tree = tree;
+		iterator = tree.inorderIterator();
+	}
+
+	@Override
+	public void seek(String word) {
+		iterator = tree.rangeIterator(word, null);
+	}
+
+	@Override
+	public boolean next() {
+		if (!iterator.hasNext()) {
+			return false;
+		}
+		node = iterator.nextNode();
+		return true;
+	}
+
+	@Override
+	public String word() {
+		return node.getElement();
+	}
+
+	@Override
+	public Postings postings() {
+		return (Postings) node.getValue();
+	}
+}
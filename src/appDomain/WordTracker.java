@@ -0,0 +1,808 @@
+package appDomain;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+import implementations.*;
+
+
+public class WordTracker implements Closeable {
+    private static final Path REPOSITORY_DIRECTORY = Paths.get("repository");
+    // Keeps the tokenizer's intern table small when words are kept off-heap.
+    private static final int OFF_HEAP_INTERN_LIMIT = 1 << 16;
+    // Report ranges per thread; see ParallelIndexer.TASKS_PER_THREAD.
+    private static final int RANGES_PER_THREAD = 4;
+    private Repository repository;
+    private BSTree<String> wordTree; // only the words added since the last save
+    private OffHeapIndex offHeapWords; // used instead of wordTree if not null
+    private List<String> fileNames;
+    private Map<String, Integer> fileIds;
+    private Tokenizer tokenizer;
+    private BitSet droppedFiles; // files whose saved postings no longer count
+    private BitSet ingestedFiles; // files with postings in wordTree
+    private LookupCache lookupCache; // saved postings of queried words, if on
+
+    public WordTracker() {
+        this(false);
+    }
+
+    /**
+     * @param offHeap whether to keep the words and postings of this run in
+     *        memory-mapped files instead of on the heap, for runs too large
+     *        for the heap
+     */
+    public WordTracker(boolean offHeap) {
+        this(offHeap, REPOSITORY_DIRECTORY);
+    }
+
+    /**
+     * @param repositoryDirectory the directory to keep the repository in
+     *        instead of ./repository
+     */
+    WordTracker(boolean offHeap, Path repositoryDirectory) {
+        wordTree = new AVLTree<>();
+        tokenizer = new Tokenizer();
+        if (offHeap) {
+            try {
+                offHeapWords = new OffHeapIndex();
+                tokenizer = new Tokenizer(OFF_HEAP_INTERN_LIMIT);
+            } catch (IOException e) {
+                System.err.println("Error creating off-heap store, using the heap: " + e.getMessage());
+            }
+        }
+        droppedFiles = new BitSet();
+        ingestedFiles = new BitSet();
+        fileNames = new ArrayList<>();
+        fileIds = new HashMap<>();
+        loadRepository(repositoryDirectory);
+    }
+
+    private void loadRepository(Path directory) {
+        try {
+            // Only headers and file tables are read here; words and postings
+            // are decoded from the mapped files as reports reach them.
+            repository = Repository.open(directory);
+            if (repository.isEmpty()) {
+                System.err.println("No existing repository found. Creating a new tree...");
+            }
+            for (String name : repository.fileNames()) {
+                fileId(name);
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading repository tree: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns every word known to the tracker in ascending order: the saved
+     * repository merged with the words added since the last save.
+     */
+    private IndexCursor allWords() {
+        List<IndexCursor> sources = new ArrayList<>();
+        if (repository != null) {
+            sources.add(repository.cursor(droppedFiles));
+        }
+        sources.add(pendingWords());
+        return new MergingCursor(sources);
+    }
+
+    /**
+     * Finds one word in the repository and among the words added since the
+     * last save.
+     *
+     * @return a cursor over the word, or over nothing if it is not indexed
+     */
+    private IndexCursor lookup(String word) {
+        Postings postings = savedPostings(word);
+        IndexCursor pending = pendingWords();
+        pending.seek(word);
+        if (pending.next() && pending.word().equals(word)) {
+            if (postings == null) {
+                postings = pending.postings();
+            } else {
+                Postings combined = new Postings();
+                combined.addAll(postings);
+                combined.addAll(pending.postings());
+                postings = combined;
+            }
+        }
+        return new WordCursor(word, postings);
+    }
+
+    /**
+     * @return the saved postings of a word, which must not be modified, or
+     *         null if it has none
+     */
+    private Postings savedPostings(String word) {
+        if (repository == null) {
+            return null;
+        }
+        LookupCache cache = lookupCache;
+        Postings postings = cache == null ? null : cache.get(word);
+        if (postings == null) {
+            postings = repository.lookup(word, droppedFiles);
+            if (cache != null) {
+                cache.put(word, postings == null ? LookupCache.NOT_FOUND : postings);
+            }
+        }
+        return postings == LookupCache.NOT_FOUND ? null : postings;
+    }
+
+    /**
+     * Caches the saved postings of the words most recently queried one at a
+     * time, for workloads where a few words make up most queries. Saving,
+     * dropping a file and compacting clear the cache. Queries may share the
+     * cache across threads, but must not run while the tracker is changed.
+     *
+     * @param capacity the most words to cache, or 0 to turn the cache off
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public void setLookupCacheCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache capacity cannot be negative: " + capacity);
+        }
+        lookupCache = capacity == 0 ? null : new LookupCache(capacity);
+    }
+
+    /**
+     * @return the number of single-word queries answered from the cache since
+     *         it was turned on
+     */
+    public long getLookupCacheHits() {
+        return lookupCache == null ? 0 : lookupCache.hits();
+    }
+
+    /**
+     * @return the number of single-word queries that had to search the
+     *         repository since the cache was turned on
+     */
+    public long getLookupCacheMisses() {
+        return lookupCache == null ? 0 : lookupCache.misses();
+    }
+
+    private void clearLookupCache() {
+        if (lookupCache != null) {
+            lookupCache.clear();
+        }
+    }
+
+    /**
+     * @return the words added since the last save, in ascending order
+     */
+    private IndexCursor pendingWords() {
+        return offHeapWords != null ? offHeapWords.cursor() : new TreeCursor(wordTree);
+    }
+
+    /**
+     * Appends the words added since the last save to the repository as a new
+     * segment, compacting once too many segments have built up.
+     */
+    void saveRepository() {
+        if (repository == null) {
+            System.err.println("Error saving repository: repository could not be opened.");
+            return;
+        }
+        clearLookupCache();
+        try {
+            repository.append(pendingWords(), fileNames, droppedFiles);
+            wordTree.clear();
+            if (offHeapWords != null) {
+                offHeapWords.clear();
+            }
+            droppedFiles.clear();
+            ingestedFiles.clear();
+            if (repository.segmentCount() > Repository.MAX_SEGMENTS) {
+                repository.compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving repository: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Folds every segment into the base index.
+     */
+    public void compactRepository() {
+        if (repository == null) {
+            return;
+        }
+        clearLookupCache();
+        try {
+            repository.compact();
+        } catch (IOException e) {
+            System.err.println("Error compacting repository: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Releases the memory-mapped files of an off-heap tracker. The tracker
+     * must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (offHeapWords == null) {
+            return;
+        }
+        try {
+            offHeapWords.close();
+        } catch (IOException e) {
+            System.err.println("Error closing off-heap store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the small integer id for a file name, assigning the next free id
+     * the first time a name is seen.
+     */
+    private int fileId(String fileName) {
+        Integer id = fileIds.get(fileName);
+        if (id == null) {
+            id = fileNames.size();
+            fileNames.add(fileName);
+            fileIds.put(fileName, id);
+        }
+        return id;
+    }
+
+    /**
+     * Indexes a file. If the file was indexed before, its old postings are
+     * dropped first, so the cost depends only on the size of this file.
+     *
+     * @param fileName the file to index
+     */
+    public void processFile(String fileName) {
+        replaceIfIndexed(fileName);
+        int id = fileId(fileName);
+        if (offHeapWords != null) {
+            tokenizeFile(tokenizer, fileName, (word, line) -> offHeapWords.add(word, id, line));
+        } else {
+            indexFile(tokenizer, wordTree, fileName, id);
+        }
+        ingestedFiles.set(id);
+    }
+
+    /**
+     * Removes a file from the index. Its postings are hidden from every report
+     * at once and words found only in that file disappear; the space they take
+     * in the repository is reclaimed by the next compaction. Nothing already
+     * saved is rewritten, so this takes time proportional to the postings of
+     * the file added since the last save, not to the size of the repository.
+     *
+     * @param fileName the file to remove
+     * @return false if the file was not indexed
+     */
+    public boolean dropFile(String fileName) {
+        Integer id = fileIds.get(fileName);
+        if (id == null) {
+            return false;
+        }
+        droppedFiles.set(id);
+        clearLookupCache();
+        if (ingestedFiles.get(id) && offHeapWords != null) {
+            offHeapWords.removeFile(id);
+            ingestedFiles.clear(id);
+        } else if (ingestedFiles.get(id)) {
+            BitSet file = new BitSet();
+            file.set(id);
+            List<String> emptied = new ArrayList<>();
+            BSTreeIterator<String> nodes = wordTree.inorderIterator();
+            while (nodes.hasNext()) {
+                BSTreeNode<String> node = nodes.nextNode();
+                Postings remaining = ((Postings) node.getValue()).without(file);
+                if (remaining.fileCount() == 0) {
+                    emptied.add(node.getElement());
+                } else {
+                    node.setValue(remaining);
+                }
+            }
+            wordTree.removeAll(emptied);
+            ingestedFiles.clear(id);
+        }
+        return true;
+    }
+
+    /**
+     * Drops an already indexed file before it is indexed again, unless it can
+     * no longer be read, in which case its old postings are kept.
+     */
+    private void replaceIfIndexed(String fileName) {
+        if (fileIds.containsKey(fileName) && Files.isRegularFile(Paths.get(fileName))) {
+            dropFile(fileName);
+        }
+    }
+
+    /**
+     * Indexes every file named, expanding directories to all regular files
+     * below them. With more than one thread the files, and byte ranges of
+     * large files, are tokenized in parallel into separate trees that are
+     * merged afterwards; the result is the same as processing the files one
+     * at a time in the order given. Words kept off-heap are always indexed
+     * on one thread, as the parallel tasks build their trees on the heap.
+     *
+     * @param inputs files and directories to index
+     * @param threads the number of worker threads to use
+     */
+    public void processFiles(List<String> inputs, int threads) {
+        List<String> files = new ArrayList<>();
+        for (String input : inputs) {
+            Path path = Paths.get(input);
+            if (!Files.isDirectory(path)) {
+                files.add(input);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(Files::isRegularFile).map(Path::toString).sorted().forEachOrdered(files::add);
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Error reading directory " + input + ": " + e.getMessage());
+            }
+        }
+        files = new ArrayList<>(new LinkedHashSet<>(files));
+        if (threads <= 1 || offHeapWords != null) {
+            for (String file : files) {
+                processFile(file);
+            }
+            return;
+        }
+
+        int[] ids = new int[files.size()];
+        for (int i = 0; i < ids.length; i++) {
+            replaceIfIndexed(files.get(i));
+            ids[i] = fileId(files.get(i));
+            ingestedFiles.set(ids[i]);
+        }
+        List<IndexCursor> sources = new ArrayList<>();
+        sources.add(new TreeCursor(wordTree));
+        for (BSTree<String> tree : new ParallelIndexer(threads).index(files, ids)) {
+            sources.add(new TreeCursor(tree));
+        }
+
+        // Rebuild the tree in one balanced pass rather than inserting the
+        // merged words one by one.
+        List<String> words = new ArrayList<>();
+        List<Postings> postings = new ArrayList<>();
+        IndexCursor merged = new MergingCursor(sources);
+        while (merged.next()) {
+            words.add(merged.word());
+            postings.add(merged.postings());
+        }
+        wordTree = AVLTree.fromSorted(words.toArray(new String[0]));
+        BSTreeIterator<String> nodes = wordTree.inorderIterator();
+        for (Postings wordPostings : postings) {
+            nodes.nextNode().setValue(wordPostings);
+        }
+    }
+
+    static void indexFile(Tokenizer tokenizer, BSTree<String> tree, String fileName, int fileId) {
+        tokenizeFile(tokenizer, fileName, (word, lineNumber) -> addPosting(tree, word, fileId, lineNumber));
+    }
+
+    private static void tokenizeFile(Tokenizer tokenizer, String fileName, Tokenizer.Sink sink) {
+        try (InputStream in = new FileInputStream(fileName)) {
+            tokenizer.tokenize(in, sink);
+        } catch (FileNotFoundException e) {
+            System.err.println("File not found: " + fileName);
+        } catch (IOException e) {
+            System.err.println("Error reading file " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds every word of a stream to a tree, numbering lines from 1.
+     *
+     * @return the number of the last line read
+     */
+    static int indexStream(Tokenizer tokenizer, BSTree<String> tree, InputStream in, int fileId) throws IOException {
+        return tokenizer.tokenize(in, (word, lineNumber) -> addPosting(tree, word, fileId, lineNumber));
+    }
+
+    private static void addPosting(BSTree<String> tree, String word, int fileId, int lineNumber) {
+        BSTreeNode<String> node = tree.addOrGet(word);
+        if (node.getValue() == null) {
+            node.setValue(new Postings());
+        }
+        ((Postings) node.getValue()).add(fileId, lineNumber);
+    }
+
+    public void generateReport(String option, String outputFile) {
+        generateReport(option, outputFile, 1);
+    }
+
+    /**
+     * Writes a report of every word. With more than one thread the words are
+     * split into ranges that are formatted in parallel and written out in
+     * order, so the report is the same as with one thread.
+     *
+     * @param option the report format, -pf, -pl or -po
+     * @param outputFile the file to write to, or null for standard output
+     * @param threads the number of threads to format with
+     */
+    public void generateReport(String option, String outputFile, int threads) {
+        generateReport(option, outputFile, null, null, threads);
+    }
+
+    /**
+     * Reports only the words matched by a query, which is one of
+     * <code>word</code> for a single word, <code>prefix*</code> for every word
+     * starting with prefix, or <code>low..high</code> for the words from low up
+     * to but not including high, where either bound may be left empty. Every
+     * source is positioned with a seek, so the time taken depends on the
+     * number of words reported rather than the size of the index.
+     *
+     * @param query the query
+     * @param option the report format, -pf, -pl or -po
+     * @param outputFile the file to write to, or null for standard output
+     */
+    public void query(String query, String option, String outputFile) {
+        query(query, option, outputFile, 1);
+    }
+
+    /**
+     * Reports the words matched by a query, formatting ranges of them on
+     * several threads as {@link #generateReport(String, String, int)} does.
+     *
+     * @param threads the number of threads to format with
+     * @see #query(String, String, String)
+     */
+    public void query(String query, String option, String outputFile, int threads) {
+        String[] bounds = queryBounds(query);
+        generateReport(option, outputFile, bounds[0], bounds[1], threads);
+    }
+
+    /**
+     * Writes the report of a query to a writer the caller owns.
+     *
+     * @see #query(String, String, String, int)
+     */
+    void query(String query, String option, ReportWriter report, int threads) throws IOException {
+        String[] bounds = queryBounds(query);
+        writeReport(option, report, bounds[0], bounds[1], threads);
+    }
+
+    /**
+     * @return the lowest word a query matches and the word after the last
+     *         one, which is null if there is no upper bound
+     */
+    private static String[] queryBounds(String query) {
+        query = query.toLowerCase(Locale.ROOT);
+        int range = query.indexOf("..");
+        if (range >= 0) {
+            String high = query.substring(range + 2);
+            return new String[] {query.substring(0, range), high.isEmpty() ? null : high};
+        }
+        if (query.endsWith("*")) {
+            String prefix = query.substring(0, query.length() - 1);
+            return new String[] {prefix, BSTree.prefixEnd(prefix)};
+        }
+        return new String[] {query, query + '\u0000'}; // the smallest word after this one
+    }
+
+    /**
+     * Reports the words from low up to but not including high, where a null
+     * bound means no bound.
+     */
+    private void generateReport(String option, String outputFile, String low, String high, int threads) {
+        if (!option.equals("-pf") && !option.equals("-pl") && !option.equals("-po")) {
+            System.err.println("Invalid option. Use -pf, -pl, or -po.");
+            return;
+        }
+        ReportWriter writer;
+        try {
+            writer = ReportWriter.open(outputFile);
+        } catch (IOException e) {
+            System.err.println("Error opening output file: " + outputFile);
+            return;
+        }
+        try (ReportWriter report = writer) {
+            writeReport(option, report, low, high, threads);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error writing report: " + e.getMessage());
+        }
+    }
+
+    private void writeReport(String option, ReportWriter report, String low, String high, int threads) throws IOException {
+        if (high != null && high.equals(low + '\u0000')) {
+            // A single word: look it up in each source instead of merging them.
+            writeWords(option, report, lookup(low), high);
+            return;
+        }
+        List<String> splits = threads > 1 ? splitWords(low, high, threads * RANGES_PER_THREAD) : Collections.<String>emptyList();
+        if (splits.isEmpty()) {
+            writeRange(option, report, low, high);
+        } else {
+            writeRanges(option, report, low, high, splits, threads);
+        }
+    }
+
+    /**
+     * Formats the ranges between consecutive split words on a pool of threads,
+     * each into its own buffer, and writes the buffers in range order. Only a
+     * few ranges run ahead of the one being written, which bounds the memory
+     * held by finished buffers.
+     */
+    private void writeRanges(String option, ReportWriter report, String low, String high, List<String> splits, int threads) throws IOException {
+        List<String> bounds = new ArrayList<>(splits.size() + 2);
+        bounds.add(low);
+        bounds.addAll(splits);
+        bounds.add(high);
+        int ranges = bounds.size() - 1;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Deque<ForkJoinTask<ReportWriter>> running = new ArrayDeque<>();
+            int submitted = 0;
+            while (submitted < ranges || !running.isEmpty()) {
+                while (submitted < ranges && running.size() < 2 * threads) {
+                    String from = bounds.get(submitted);
+                    String to = bounds.get(submitted + 1);
+                    running.add(pool.submit(() -> formatRange(option, from, to)));
+                    submitted++;
+                }
+                running.poll().join().writeTo(report);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ReportWriter formatRange(String option, String low, String high) {
+        ReportWriter report = new ReportWriter();
+        try {
+            writeRange(option, report, low, high);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return report;
+    }
+
+    private void writeRange(String option, ReportWriter report, String low, String high) throws IOException {
+        IndexCursor words = allWords();
+        if (low != null) {
+            words.seek(low);
+        }
+        writeWords(option, report, words, high);
+    }
+
+    private void writeWords(String option, ReportWriter report, IndexCursor words, String high) throws IOException {
+        switch (option) {
+            case "-pf":
+                generateReportFileOnly(report, words, high);
+                break;
+            case "-pl":
+                generateReportFileAndLine(report, words, high);
+                break;
+            default:
+                generateReportFileLineAndFrequency(report, words, high);
+        }
+    }
+
+    /**
+     * Picks words that split the words from low up to but not including high
+     * into about the given number of ranges of similar size, using whichever
+     * of the repository and the words added since the last save has more.
+     *
+     * @return ascending words strictly between low and high
+     */
+    private List<String> splitWords(String low, String high, int parts) {
+        int saved = repository == null ? 0 : repository.largestWordCount();
+        if (offHeapWords != null || saved >= wordTree.size()) {
+            return repository == null ? Collections.<String>emptyList() : repository.splitWords(low, high, parts);
+        }
+        int from = low == null ? 0 : wordTree.rank(low);
+        int to = high == null ? wordTree.size() : wordTree.rank(high);
+        List<String> words = new ArrayList<>();
+        int previous = from;
+        for (int i = 1; i < parts; i++) {
+            int index = from + (int) ((long) (to - from) * i / parts);
+            if (index > previous && index < to) {
+                words.add(wordTree.select(index).getElement());
+                previous = index;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Advances to the next word to report.
+     *
+     * @param high the word to stop before, or null to report every word
+     */
+    private static boolean nextWord(IndexCursor words, String high) {
+        return words.next() && (high == null || words.word().compareTo(high) < 0);
+    }
+
+    private void generateReportFileOnly(ReportWriter report, IndexCursor words, String high) throws IOException {
+        while (nextWord(words, high)) {
+            Postings postings = words.postings();
+            report.write(words.word()).write(": [");
+            for (int i = 0; i < postings.fileCount(); i++) {
+                if (i > 0) {
+                    report.write(", ");
+                }
+                report.write(fileNames.get(postings.fileId(i)));
+            }
+            report.write(']').newLine();
+        }
+    }
+
+    private void generateReportFileAndLine(ReportWriter report, IndexCursor words, String high) throws IOException {
+        while (nextWord(words, high)) {
+            Postings postings = words.postings();
+            report.write(words.word()).write(": ");
+            for (int i = 0; i < postings.fileCount(); i++) {
+                report.write(fileNames.get(postings.fileId(i))).write(" (lines ");
+                writeLines(report, postings, i).write("), ");
+            }
+            report.newLine();
+        }
+    }
+
+    private void generateReportFileLineAndFrequency(ReportWriter report, IndexCursor words, String high) throws IOException {
+        while (nextWord(words, high)) {
+            Postings postings = words.postings();
+            report.write(words.word()).write(": ");
+            for (int i = 0; i < postings.fileCount(); i++) {
+                report.write(fileNames.get(postings.fileId(i))).write(" (")
+                    .write(postings.lineCount(i)).write(" occurrences at lines ");
+                writeLines(report, postings, i).write("), ");
+            }
+            report.newLine();
+        }
+    }
+
+    /**
+     * Writes the line numbers of one file entry in the same "[1, 2, 3]" form
+     * that List.toString() produced.
+     */
+    private static ReportWriter writeLines(ReportWriter report, Postings postings, int index) throws IOException {
+        report.write('[');
+        for (int j = 0; j < postings.lineCount(index); j++) {
+            if (j > 0) {
+                report.write(", ");
+            }
+            report.write(postings.line(index, j));
+        }
+        return report.write(']');
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 1 && args[0].equals("-compact")) {
+            new WordTracker().compactRepository();
+            return;
+        }
+        if (args.length >= 1 && args.length <= 2 && args[0].equals("-serve")) {
+            QueryServer server = new QueryServer(new WordTracker(), Runtime.getRuntime().availableProcessors());
+            try {
+                if (args.length == 1) {
+                    server.serve(System.in, System.out);
+                } else {
+                    server.listen(Integer.parseInt(args[1]));
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port: " + args[1]);
+            } catch (IOException e) {
+                System.err.println("Error serving: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("-d")) {
+            WordTracker tracker = new WordTracker();
+            for (int i = 1; i < args.length; i++) {
+                if (!tracker.dropFile(args[i])) {
+                    System.err.println("File not indexed: " + args[i]);
+                }
+            }
+            tracker.saveRepository();
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("-q")) {
+            String option = "-po";
+            String outputFile = null;
+            int threads = Runtime.getRuntime().availableProcessors();
+            for (int next = 2; next < args.length; next++) {
+                if (args[next].equals("-f") && next + 1 < args.length) {
+                    outputFile = args[++next];
+                } else if (args[next].equals("-t") && next + 1 < args.length) {
+                    try {
+                        threads = Integer.parseInt(args[++next]);
+                    } catch (NumberFormatException e) {
+                        System.err.println("Invalid thread count: " + args[next]);
+                        return;
+                    }
+                } else {
+                    option = args[next];
+                }
+            }
+            new WordTracker().query(args[1], option, outputFile, threads);
+            return;
+        }
+        List<String> inputs = new ArrayList<>();
+        int next = 0;
+        while (next < args.length && !args[next].startsWith("-")) {
+            inputs.add(args[next++]);
+        }
+        if (inputs.isEmpty() || next == args.length) {
+            exitWithUsage();
+        }
+        String option = args[next++];
+        if (!option.equals("-pf") && !option.equals("-pl") && !option.equals("-po")) {
+            exitWithUsage();
+        }
+        String outputFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean offHeap = false;
+        for (; next < args.length; next++) {
+            if (args[next].equals("-offheap")) {
+                offHeap = true;
+            } else if (next + 1 == args.length || !args[next].equals("-f") && !args[next].equals("-t")) {
+                exitWithUsage(); // an unknown option, or -f or -t without its value
+            } else if (args[next].equals("-f")) {
+                outputFile = args[++next];
+            } else {
+                try {
+                    threads = Integer.parseInt(args[++next]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid thread count: " + args[next]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        try (WordTracker tracker = new WordTracker(offHeap)) {
+            tracker.processFiles(inputs, threads);
+            tracker.saveRepository();
+
+            tracker.generateReport(option, outputFile, threads);
+        }
+    }
+
+    private static void exitWithUsage() {
+        System.err.println("Usage: java WordTracker <input>... -pf/-pl/-po [-f <output.txt>] [-t <threads>] [-offheap]");
+        System.err.println("       java WordTracker -q <word|prefix*|low..high> [-pf/-pl/-po] [-f <output.txt>] [-t <threads>]");
+        System.err.println("       java WordTracker -d <file>...");
+        System.err.println("       java WordTracker -serve [<port>]");
+        System.err.println("       java WordTracker -compact");
+        System.exit(1);
+    }
+
+    /**
+     * Cursor over a single word, or over nothing if its postings are null.
+     */
+    private static class WordCursor implements IndexCursor {
+        private final String word;
+        private final Postings postings;
+        private boolean done;
+
+        WordCursor(String word, Postings postings) {
+            this.word = word;
+            this.postings = postings;
+            this.done = postings == null;
+        }
+
+        @Override
+        public boolean next() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            return true;
+        }
+
+        @Override
+        public void seek(String target) {
+            done = postings == null || word.compareTo(target) < 0;
+        }
+
+        @Override
+        public String word() {
+            return word;
+        }
+
+        @Override
+        public Postings postings() {
+            return postings;
+        }
+    }
+}
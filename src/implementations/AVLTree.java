@@ -0,0 +1,164 @@
+package implementations;
+
+import java.util.ArrayList;
+
+import utilities.Iterator;
+
+/**
+ * Self-balancing variant of {@link BSTree} that keeps the AVL invariant: the
+ * heights of the two subtrees of any node differ by at most one. This bounds
+ * the tree height by roughly 1.44 log2(n), so sorted input no longer degrades
+ * the tree into a linked list and add, addOrGet, contains, search, removeMin and
+ * removeMax stay O(log n) in the worst case.
+ *
+ * @param <E> the type of elements maintained by this tree
+ */
+public class AVLTree<E extends Comparable<E>> extends BSTree<E> {
+    private static final long serialVersionUID = -3202744851618393612L;
+
+    public AVLTree() {
+        super();
+    }
+
+    /**
+     * Builds a perfectly balanced tree from elements already in ascending order
+     * in O(n) time. See {@link BSTree#fromSorted(Comparable[])}.
+     *
+     * @param sorted the elements in ascending order
+     * @return a balanced tree holding the elements
+     */
+    public static <E extends Comparable<E>> AVLTree<E> fromSorted(E[] sorted) {
+        return fromSorted(arrayIterator(sorted), sorted.length);
+    }
+
+    /**
+     * Builds a perfectly balanced tree from the next <code>count</code> elements
+     * of an ascending iterator in O(n) time. See
+     * {@link BSTree#fromSorted(Iterator, int)}.
+     *
+     * @param sorted iterator returning the elements in ascending order
+     * @param count the number of elements to take from the iterator
+     * @return a balanced tree holding the elements
+     */
+    public static <E extends Comparable<E>> AVLTree<E> fromSorted(Iterator<E> sorted, int count) {
+        AVLTree<E> tree = new AVLTree<>();
+        tree.buildFromSorted(sorted, count);
+        return tree;
+    }
+
+    @Override
+    public BSTreeNode<E> addOrGet(E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot add null element.");
+        }
+        if (root == null) {
+            root = new BSTreeNode<>(element);
+            size++;
+            modCount++;
+            return root;
+        }
+        ArrayList<BSTreeNode<E>> path = addPath();
+        try {
+            BSTreeNode<E> current = root;
+            BSTreeNode<E> added;
+            while (true) {
+                path.add(current);
+                int comparison = element.compareTo(current.getElement());
+                if (comparison == 0) {
+                    return current;
+                } else if (comparison < 0) {
+                    if (current.getLeft() == null) {
+                        added = new BSTreeNode<>(element);
+                        current.setLeft(added);
+                        break;
+                    }
+                    current = current.getLeft();
+                } else {
+                    if (current.getRight() == null) {
+                        added = new BSTreeNode<>(element);
+                        current.setRight(added);
+                        break;
+                    }
+                    current = current.getRight();
+                }
+            }
+            size++;
+            modCount++;
+            // Rotations relink nodes but never move elements between them, so the
+            // new node still holds the element after rebalancing.
+            retrace(path);
+            return added;
+        } finally {
+            path.clear();
+        }
+    }
+
+    /**
+     * Rebalances the path as well as updating it, so removals keep the tree
+     * balanced.
+     */
+    @Override
+    protected void repair(ArrayList<BSTreeNode<E>> path) {
+        retrace(path);
+    }
+
+    /**
+     * Walks back up the path from the deepest modified node to the root,
+     * refreshing heights and sizes and rotating any node that went out of balance.
+     */
+    private void retrace(ArrayList<BSTreeNode<E>> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            BSTreeNode<E> node = path.get(i);
+            BSTreeNode<E> balanced = rebalance(node);
+            if (balanced != node) {
+                if (i == 0) {
+                    root = balanced;
+                } else if (path.get(i - 1).getLeft() == node) {
+                    path.get(i - 1).setLeft(balanced);
+                } else {
+                    path.get(i - 1).setRight(balanced);
+                }
+            }
+        }
+    }
+
+    private BSTreeNode<E> rebalance(BSTreeNode<E> node) {
+        node.update();
+        int balance = height(node.getLeft()) - height(node.getRight());
+        if (balance > 1) {
+            if (height(node.getLeft().getLeft()) < height(node.getLeft().getRight())) {
+                node.setLeft(rotateLeft(node.getLeft()));
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.getRight().getRight()) < height(node.getRight().getLeft())) {
+                node.setRight(rotateRight(node.getRight()));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private BSTreeNode<E> rotateLeft(BSTreeNode<E> node) {
+        BSTreeNode<E> pivot = node.getRight();
+        node.setRight(pivot.getLeft());
+        pivot.setLeft(node);
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private BSTreeNode<E> rotateRight(BSTreeNode<E> node) {
+        BSTreeNode<E> pivot = node.getLeft();
+        node.setLeft(pivot.getRight());
+        pivot.setRight(node);
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private int height(BSTreeNode<E> node) {
+        return node == null ? 0 : node.getHeight();
+    }
+}
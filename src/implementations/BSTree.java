@@ -4,6 +4,8 @@ import utilities.Iterator;
 import utilities.BSTreeADT;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
 
 /**
  * Implementation of a Binary Search Tree (BST) based on the BSTreeADT contract.
@@ -12,8 +14,13 @@ import java.io.Serializable;
  */
 public class BSTree<E extends Comparable<E>> implements BSTreeADT<E>, Serializable {
     private static final long serialVersionUID = 5907685409899986079L;
-	private BSTreeNode<E> root;
-    private int size;
+    protected BSTreeNode<E> root;
+    protected int size;
+    protected transient int modCount;
+    // Reused by every addOrGet, so that looking up or inserting an element
+    // allocates nothing beyond the new node. Emptied after each use so it does
+    // not keep removed nodes reachable.
+    private transient ArrayList<BSTreeNode<E>> addPath;
 
     // Constructor
     public BSTree() {
@@ -21,84 +28,176 @@ public class BSTree<E extends Comparable<E>> implements BSTreeADT<E>, Serializab
         this.size = 0;
     }
 
+    /**
+     * Builds a perfectly balanced tree from elements already in ascending order
+     * in O(n) time, without comparing any elements. The caller is responsible
+     * for the ordering and for there being no duplicates.
+     *
+     * @param sorted the elements in ascending order
+     * @return a balanced tree holding the elements
+     * @throws NullPointerException if any element is null
+     */
+    public static <E extends Comparable<E>> BSTree<E> fromSorted(E[] sorted) {
+        return fromSorted(arrayIterator(sorted), sorted.length);
+    }
+
+    /**
+     * Builds a perfectly balanced tree from the next <code>count</code> elements
+     * of an ascending iterator in O(n) time, without comparing any elements.
+     *
+     * @param sorted iterator returning the elements in ascending order
+     * @param count the number of elements to take from the iterator
+     * @return a balanced tree holding the elements
+     * @throws NullPointerException if any element is null
+     */
+    public static <E extends Comparable<E>> BSTree<E> fromSorted(Iterator<E> sorted, int count) {
+        BSTree<E> tree = new BSTree<>();
+        tree.buildFromSorted(sorted, count);
+        return tree;
+    }
+
+    static <E> Iterator<E> arrayIterator(final E[] elements) {
+        return new Iterator<E>() {
+            private int index;
+
+            public boolean hasNext() {
+                return index < elements.length;
+            }
+
+            public E next() {
+                if (index == elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return elements[index++];
+            }
+        };
+    }
+
+    /**
+     * Replaces the contents of this tree with a balanced tree built from the
+     * ascending iterator.
+     */
+    protected void buildFromSorted(Iterator<E> sorted, int count) {
+        root = buildBalanced(sorted, count);
+        size = count;
+        modCount++;
+    }
+
+    private BSTreeNode<E> buildBalanced(Iterator<E> sorted, int count) {
+        // Recursion depth is log2(count), so this cannot overflow the stack.
+        if (count == 0) {
+            return null;
+        }
+        int leftCount = (count - 1) / 2;
+        BSTreeNode<E> left = buildBalanced(sorted, leftCount);
+        E element = sorted.next();
+        if (element == null) {
+            throw new NullPointerException("Cannot add null element.");
+        }
+        BSTreeNode<E> node = new BSTreeNode<>(element);
+        BSTreeNode<E> right = buildBalanced(sorted, count - 1 - leftCount);
+        node.setLeft(left);
+        node.setRight(right);
+        node.update();
+        return node;
+    }
+
     public boolean add(E element) {
+        int before = size;
+        addOrGet(element);
+        return size != before;
+    }
+
+    /**
+     * Returns the node holding the given element, inserting a new node first if
+     * the element is not in the tree yet. This takes a single descent, unlike a
+     * contains() followed by add() and search().
+     *
+     * @param element the element to find or insert
+     * @return the existing or newly created node for the element
+     * @throws NullPointerException if the element being passed in is null
+     */
+    public BSTreeNode<E> addOrGet(E element) {
         if (element == null) {
             throw new NullPointerException("Cannot add null element.");
         }
-        if (root == null) {
-            root = new BSTreeNode<>(element);
+        ArrayList<BSTreeNode<E>> path = addPath();
+        try {
+            BSTreeNode<E> current = root;
+            int comparison = 0;
+            while (current != null) {
+                comparison = element.compareTo(current.getElement());
+                if (comparison == 0) {
+                    return current;
+                }
+                path.add(current);
+                current = comparison < 0 ? current.getLeft() : current.getRight();
+            }
+            BSTreeNode<E> added = new BSTreeNode<>(element);
+            int depth = path.size();
+            if (depth == 0) {
+                root = added;
+            } else if (comparison < 0) {
+                path.get(depth - 1).setLeft(added);
+            } else {
+                path.get(depth - 1).setRight(added);
+            }
+            // Count the new node in every ancestor. The new leaf is depth - i
+            // levels below the ancestor at depth i.
+            for (int i = 0; i < depth; i++) {
+                BSTreeNode<E> ancestor = path.get(i);
+                ancestor.setSize(ancestor.getSize() + 1);
+                ancestor.setHeight(Math.max(ancestor.getHeight(), depth - i + 1));
+            }
             size++;
-            return true;
+            modCount++;
+            return added;
+        } finally {
+            path.clear();
         }
-        return addRecursive(root, element);
     }
 
-    private boolean addRecursive(BSTreeNode<E> current, E element) {
-        int comparison = element.compareTo(current.getElement());
-        if (comparison == 0) {
-            return false; // Duplicate element
-        } else if (comparison < 0) {
-            if (current.getLeft() == null) {
-                current.setLeft(new BSTreeNode<>(element));
-                size++;
-                return true;
-            }
-            return addRecursive(current.getLeft(), element);
-        } else {
-            if (current.getRight() == null) {
-                current.setRight(new BSTreeNode<>(element));
-                size++;
-                return true;
-            }
-            return addRecursive(current.getRight(), element);
+    /**
+     * @return the empty list that addOrGet records the nodes it descends
+     *         through in, to be cleared again once it is done
+     */
+    protected ArrayList<BSTreeNode<E>> addPath() {
+        if (addPath == null) {
+            addPath = new ArrayList<>();
         }
+        return addPath;
     }
 
     public boolean contains(E element) {
         if (element == null) {
             throw new NullPointerException("Cannot check for null element.");
         }
-        return containsRecursive(root, element);
-    }
-
-    private boolean containsRecursive(BSTreeNode<E> current, E element) {
-        if (current == null) {
-            return false;
-        }
-        int comparison = element.compareTo(current.getElement());
-        if (comparison == 0) {
-            return true;
-        } else if (comparison < 0) {
-            return containsRecursive(current.getLeft(), element);
-        } else {
-            return containsRecursive(current.getRight(), element);
-        }
+        return find(element) != null;
     }
 
     public BSTreeNode<E> search(E element) {
         if (element == null) {
             throw new NullPointerException("Cannot search for null element.");
         }
-        return searchRecursive(root, element);
+        return find(element);
     }
 
-    private BSTreeNode<E> searchRecursive(BSTreeNode<E> current, E element) {
-        if (current == null) {
-            return null;
-        }
-        int comparison = element.compareTo(current.getElement());
-        if (comparison == 0) {
-            return current;
-        } else if (comparison < 0) {
-            return searchRecursive(current.getLeft(), element);
-        } else {
-            return searchRecursive(current.getRight(), element);
+    private BSTreeNode<E> find(E element) {
+        BSTreeNode<E> current = root;
+        while (current != null) {
+            int comparison = element.compareTo(current.getElement());
+            if (comparison == 0) {
+                return current;
+            }
+            current = comparison < 0 ? current.getLeft() : current.getRight();
         }
+        return null;
     }
 
     public void clear() {
         root = null;
         size = 0;
+        modCount++;
     }
 
     public int size() {
@@ -116,49 +215,16 @@ public class BSTree<E extends Comparable<E>> implements BSTreeADT<E>, Serializab
         return root;
     }
 
-    public Iterator<E> inorderIterator() {
-    	BSTreeIterator<E> accumulator = new BSTreeIterator<E>();
-        return inOrderIteratorRecursive(root, accumulator);
-    }
-    
-    private BSTreeIterator<E> inOrderIteratorRecursive(BSTreeNode<E> node, BSTreeIterator<E> accumulator) {
-    	if (node == null){
-    		return accumulator;
-    	}
-    	accumulator = inOrderIteratorRecursive(node.getLeft(), accumulator);
-    	accumulator.addElement(node.getElement());
-    	return inOrderIteratorRecursive(node.getRight(), accumulator);
+    public BSTreeIterator<E> inorderIterator() {
+        return new BSTreeIterator<E>(this, BSTreeIterator.Traversal.INORDER);
     }
 
     public Iterator<E> preorderIterator() {
-        BSTreeIterator<E> accumulator = new BSTreeIterator<E>();
-        return preOrderIteratorRecursive(root, accumulator);
-    }
-    
-    private BSTreeIterator<E> preOrderIteratorRecursive(BSTreeNode<E> node, BSTreeIterator<E> accumulator) {
-    	if (node == null) {
-    		return accumulator;
-    	}
-    	
-    	accumulator.addElement(node.getElement());
-    	accumulator = preOrderIteratorRecursive(node.getLeft(), accumulator);
-    	return preOrderIteratorRecursive(node.getRight(), accumulator);
+        return new BSTreeIterator<E>(this, BSTreeIterator.Traversal.PREORDER);
     }
 
     public Iterator<E> postorderIterator() {
-        BSTreeIterator<E> accumulator = new BSTreeIterator<E>();
-        return postOrderIteratorRecursive(root, accumulator);
-    }
-    
-    private BSTreeIterator<E> postOrderIteratorRecursive(BSTreeNode<E> node, BSTreeIterator<E> accumulator) {
-    	if (node == null) {
-    		return accumulator;
-    	}
-    	
-    	accumulator = postOrderIteratorRecursive(node.getLeft(), accumulator);
-    	accumulator = postOrderIteratorRecursive(node.getRight(), accumulator);
-    	accumulator.addElement(node.getElement());
-    	return accumulator;
+        return new BSTreeIterator<E>(this, BSTreeIterator.Traversal.POSTORDER);
     }
 
     @Override
@@ -166,18 +232,20 @@ public class BSTree<E extends Comparable<E>> implements BSTreeADT<E>, Serializab
         if (root == null) {
             return null;
         }
-        BSTreeNode<E> parent = null;
+        ArrayList<BSTreeNode<E>> path = new ArrayList<>();
         BSTreeNode<E> current = root;
         while (current.getLeft() != null) {
-            parent = current;
+            path.add(current);
             current = current.getLeft();
         }
-        if (parent == null) {
+        if (path.isEmpty()) {
             root = current.getRight();
         } else {
-            parent.setLeft(current.getRight());
+            path.get(path.size() - 1).setLeft(current.getRight());
         }
+        repair(path);
         size--;
+        modCount++;
         return current;
     }
 
@@ -185,29 +253,312 @@ public class BSTree<E extends Comparable<E>> implements BSTreeADT<E>, Serializab
         if (root == null) {
             return null;
         }
-        BSTreeNode<E> parent = null;
+        ArrayList<BSTreeNode<E>> path = new ArrayList<>();
         BSTreeNode<E> current = root;
         while (current.getRight() != null) {
-            parent = current;
+            path.add(current);
             current = current.getRight();
         }
-        if (parent == null) {
+        if (path.isEmpty()) {
             root = current.getLeft();
         } else {
-            parent.setRight(current.getLeft());
+            path.get(path.size() - 1).setRight(current.getLeft());
         }
+        repair(path);
         size--;
+        modCount++;
         return current;
     }
 
+    /**
+     * Removes the node holding the given element. A node with two children is
+     * replaced by relinking its in-order successor into its place, so every
+     * remaining element keeps its own node and the value attached to it. The
+     * time taken is proportional to the height of the tree.
+     *
+     * @param element the element to remove
+     * @return the removed node, or null if the element was not in the tree
+     * @throws NullPointerException if the element is null
+     */
+    public BSTreeNode<E> remove(E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot remove null element.");
+        }
+        ArrayList<BSTreeNode<E>> path = new ArrayList<>();
+        BSTreeNode<E> node = root;
+        while (node != null) {
+            int comparison = element.compareTo(node.getElement());
+            if (comparison == 0) {
+                break;
+            }
+            path.add(node);
+            node = comparison < 0 ? node.getLeft() : node.getRight();
+        }
+        if (node == null) {
+            return null;
+        }
+
+        BSTreeNode<E> replacement;
+        ArrayList<BSTreeNode<E>> below = new ArrayList<>();
+        if (node.getLeft() == null) {
+            replacement = node.getRight();
+        } else if (node.getRight() == null) {
+            replacement = node.getLeft();
+        } else {
+            BSTreeNode<E> successor = node.getRight();
+            while (successor.getLeft() != null) {
+                below.add(successor);
+                successor = successor.getLeft();
+            }
+            if (!below.isEmpty()) {
+                below.get(below.size() - 1).setLeft(successor.getRight());
+                successor.setRight(node.getRight());
+            }
+            successor.setLeft(node.getLeft());
+            replacement = successor;
+        }
+        if (path.isEmpty()) {
+            root = replacement;
+        } else if (path.get(path.size() - 1).getLeft() == node) {
+            path.get(path.size() - 1).setLeft(replacement);
+        } else {
+            path.get(path.size() - 1).setRight(replacement);
+        }
+        // The successor now sits where the node was, with the nodes that were
+        // between them on the path below it.
+        if (replacement != null && node.getLeft() != null && node.getRight() != null) {
+            path.add(replacement);
+            path.addAll(below);
+        }
+        repair(path);
+        size--;
+        modCount++;
+        return node;
+    }
+
+    /**
+     * Removes every given element that is in the tree.
+     *
+     * @param elements the elements to remove
+     * @return the number of elements removed
+     * @throws NullPointerException if any element is null
+     */
+    public int removeAll(Iterable<? extends E> elements) {
+        int removed = 0;
+        for (E element : elements) {
+            if (remove(element) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Brings the nodes on a path back up to date after a removal changed the
+     * subtrees below them.
+     *
+     * @param path the nodes from the root downwards whose subtrees changed
+     */
+    protected void repair(ArrayList<BSTreeNode<E>> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).update();
+        }
+    }
+
+    /**
+     * Every node keeps the height of its subtree, so this takes O(1) time.
+     */
     public int getHeight() {
-        return getHeightRecursive(root);
+        return root == null ? 0 : root.getHeight();
+    }
+
+    /**
+     * Returns the node at a position in ascending order, using the subtree
+     * sizes kept on every node. This takes time proportional to the height of
+     * the tree.
+     *
+     * @param index the position, from 0 for the smallest element
+     * @return the node holding the element at that position
+     * @throws IndexOutOfBoundsException if index is negative or not less than
+     *         size()
+     */
+    public BSTreeNode<E> select(int index) {
+        return select(root, index);
+    }
+
+    /**
+     * @param element the element to rank, which need not be in the tree
+     * @return the number of elements in the tree smaller than element
+     * @throws NullPointerException if the element is null
+     */
+    public int rank(E element) {
+        return rank(root, element);
+    }
+
+    /**
+     * @param low the smallest element to count
+     * @param high the element to stop before
+     * @return the number of elements e with low &lt;= e &lt; high
+     * @throws NullPointerException if either bound is null
+     */
+    public int countRange(E low, E high) {
+        return Math.max(0, rank(high) - rank(low));
+    }
+
+    /**
+     * @param element the element to look for, which need not be in the tree
+     * @return the node with the largest element less than or equal to the
+     *         given one, or null if there is none
+     * @throws NullPointerException if the element is null
+     */
+    public BSTreeNode<E> floor(E element) {
+        return floor(root, element);
+    }
+
+    /**
+     * @param element the element to look for, which need not be in the tree
+     * @return the node with the smallest element greater than or equal to the
+     *         given one, or null if there is none
+     * @throws NullPointerException if the element is null
+     */
+    public BSTreeNode<E> ceiling(E element) {
+        return ceiling(root, element);
+    }
+
+    /**
+     * Returns an in-order iterator over the elements e with
+     * low &lt;= e &lt; high. It starts with a single descent to low and stops at
+     * the first element not below high, so it never visits the rest of the
+     * tree. Like {@link #inorderIterator()} it is fail-fast.
+     *
+     * @param low the smallest element to return, or null to start at the
+     *        smallest element of the tree
+     * @param high the element to stop before, or null to run to the end
+     * @return an iterator over the range
+     */
+    public BSTreeIterator<E> rangeIterator(E low, E high) {
+        return new BSTreeIterator<E>(this, root, low, high);
+    }
+
+    /**
+     * Returns an in-order iterator over the elements starting with the given
+     * prefix. This only applies to trees of Strings.
+     *
+     * @param prefix the prefix every returned element starts with
+     * @return an iterator over the matching elements
+     * @throws NullPointerException if the prefix is null
+     * @throws ClassCastException if the elements of this tree are not Strings
+     */
+    public BSTreeIterator<E> prefixIterator(String prefix) {
+        return new BSTreeIterator<E>(this, root, prefixLow(prefix), prefixHigh(prefix));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> E prefixLow(String prefix) {
+        if (prefix == null) {
+            throw new NullPointerException("Cannot search for null prefix.");
+        }
+        return (E) prefix;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> E prefixHigh(String prefix) {
+        return (E) prefixEnd(prefix);
+    }
+
+    /**
+     * Returns the smallest String greater than every String starting with the
+     * prefix, which is the exclusive upper bound of a prefix search.
+     *
+     * @param prefix the prefix
+     * @return the bound, or null if there is no such String
+     */
+    public static String prefixEnd(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            char last = prefix.charAt(i);
+            if (last != Character.MAX_VALUE) {
+                return prefix.substring(0, i) + (char) (last + 1);
+            }
+        }
+        return null;
     }
 
-    private int getHeightRecursive(BSTreeNode<E> current) {
-        if (current == null) {
-            return 0;
+    static <E extends Comparable<E>> BSTreeNode<E> floor(BSTreeNode<E> root, E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot search for null element.");
+        }
+        BSTreeNode<E> floor = null;
+        BSTreeNode<E> current = root;
+        while (current != null) {
+            int comparison = element.compareTo(current.getElement());
+            if (comparison == 0) {
+                return current;
+            }
+            if (comparison < 0) {
+                current = current.getLeft();
+            } else {
+                floor = current;
+                current = current.getRight();
+            }
+        }
+        return floor;
+    }
+
+    static <E extends Comparable<E>> BSTreeNode<E> ceiling(BSTreeNode<E> root, E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot search for null element.");
+        }
+        BSTreeNode<E> ceiling = null;
+        BSTreeNode<E> current = root;
+        while (current != null) {
+            int comparison = element.compareTo(current.getElement());
+            if (comparison == 0) {
+                return current;
+            }
+            if (comparison > 0) {
+                current = current.getRight();
+            } else {
+                ceiling = current;
+                current = current.getLeft();
+            }
+        }
+        return ceiling;
+    }
+
+    static <E extends Comparable<E>> BSTreeNode<E> select(BSTreeNode<E> root, int index) {
+        if (index < 0 || index >= (root == null ? 0 : root.getSize())) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        BSTreeNode<E> current = root;
+        while (true) {
+            int leftSize = current.getLeft() == null ? 0 : current.getLeft().getSize();
+            if (index == leftSize) {
+                return current;
+            }
+            if (index < leftSize) {
+                current = current.getLeft();
+            } else {
+                index -= leftSize + 1;
+                current = current.getRight();
+            }
+        }
+    }
+
+    static <E extends Comparable<E>> int rank(BSTreeNode<E> root, E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot rank null element.");
+        }
+        int rank = 0;
+        BSTreeNode<E> current = root;
+        while (current != null) {
+            int comparison = element.compareTo(current.getElement());
+            if (comparison <= 0) {
+                current = current.getLeft();
+            } else {
+                rank += 1 + (current.getLeft() == null ? 0 : current.getLeft().getSize());
+                current = current.getRight();
+            }
         }
-        return 1 + Math.max(getHeightRecursive(current.getLeft()), getHeightRecursive(current.getRight()));
+        return rank;
     }
 }
@@ -1,37 +1,147 @@
 package implementations;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
 import java.util.NoSuchElementException;
 
 import utilities.Iterator;
 
-public class BSTreeIterator<E> implements Iterator<E> {
-	
-	private int size;
-	private int currentIndex;
-	private ArrayList<E> elements;
-	
-	public BSTreeIterator() {
-		size = 0;
-		currentIndex = 0;
-		elements = new ArrayList<E>();
+/**
+ * Lazy iterator over a {@link BSTree}. Instead of copying the tree up front it
+ * walks the nodes with an explicit stack, so it uses O(height) memory and
+ * returns the first element immediately. The iterator is fail-fast: if the
+ * tree is structurally modified after the iterator was created, the next call
+ * to {@link #next()} throws a {@link ConcurrentModificationException}.
+ * Iterators over the immutable snapshots of a {@link ConcurrentBSTree} never
+ * fail, since the nodes they walk are never changed.
+ *
+ * @param <E> the type of elements returned by this iterator
+ */
+public class BSTreeIterator<E extends Comparable<E>> implements Iterator<E> {
+
+	enum Traversal {
+		INORDER, PREORDER, POSTORDER
+	}
+
+	private final BSTree<E> tree;
+	private final Traversal traversal;
+	private final ArrayDeque<BSTreeNode<E>> stack;
+	private final int expectedModCount;
+	private final E high;
+
+	BSTreeIterator(BSTree<E> tree, Traversal traversal) {
+		this(tree, tree.root, traversal, null, null);
+	}
+
+	/**
+	 * Iterates over a tree of nodes that is never modified, without checking
+	 * for concurrent modification.
+	 */
+	BSTreeIterator(BSTreeNode<E> root, Traversal traversal) {
+		this(null, root, traversal, null, null);
+	}
+
+	/**
+	 * In-order iteration over the elements e with low &lt;= e &lt; high; a null
+	 * bound leaves that end open. Only the nodes on the path to low and the
+	 * elements returned are visited. The tree is null for a snapshot that is
+	 * never modified.
+	 */
+	BSTreeIterator(BSTree<E> tree, BSTreeNode<E> root, E low, E high) {
+		this(tree, root, Traversal.INORDER, low, high);
 	}
-	
-	public void addElement(E element) {
-		elements.add(element);
-		size++;
+
+	private BSTreeIterator(BSTree<E> tree, BSTreeNode<E> root, Traversal traversal, E low, E high) {
+		this.tree = tree;
+		this.traversal = traversal;
+		this.stack = new ArrayDeque<>();
+		this.expectedModCount = tree == null ? 0 : tree.modCount;
+		this.high = high;
+		switch (traversal) {
+			case INORDER:
+				// Every node pushed here is at least low, and so is everything
+				// in its right subtree, so later descents need no bound check.
+				while (root != null) {
+					if (low != null && root.getElement().compareTo(low) < 0) {
+						root = root.getRight();
+					} else {
+						stack.push(root);
+						root = root.getLeft();
+					}
+				}
+				break;
+			case PREORDER:
+				if (root != null) {
+					stack.push(root);
+				}
+				break;
+			case POSTORDER:
+				pushLeftmostLeaf(root);
+				break;
+		}
 	}
 
 	@Override
 	public boolean hasNext() {
-		return currentIndex < size;
+		return !stack.isEmpty() && (high == null || stack.peek().getElement().compareTo(high) < 0);
 	}
 
 	@Override
 	public E next() throws NoSuchElementException {
-		E returned = elements.get(currentIndex);
-		currentIndex++;
-		return returned;
+		return nextNode().getElement();
+	}
+
+	/**
+	 * Advances the iteration and returns the node itself rather than its
+	 * element.
+	 *
+	 * @return the next node in the iteration
+	 * @throws NoSuchElementException if the iteration has no more elements
+	 * @throws ConcurrentModificationException if the tree was modified
+	 */
+	public BSTreeNode<E> nextNode() throws NoSuchElementException {
+		if (tree != null && tree.modCount != expectedModCount) {
+			throw new ConcurrentModificationException();
+		}
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		BSTreeNode<E> node = stack.pop();
+		switch (traversal) {
+			case INORDER:
+				pushLeft(node.getRight());
+				break;
+			case PREORDER:
+				if (node.getRight() != null) {
+					stack.push(node.getRight());
+				}
+				if (node.getLeft() != null) {
+					stack.push(node.getLeft());
+				}
+				break;
+			case POSTORDER:
+				// The parent is emitted after its right subtree, so descend into
+				// that subtree once the left side is finished.
+				BSTreeNode<E> parent = stack.peek();
+				if (parent != null && parent.getLeft() == node) {
+					pushLeftmostLeaf(parent.getRight());
+				}
+				break;
+		}
+		return node;
 	}
 
-}
\ No newline at end of file
+	private void pushLeft(BSTreeNode<E> node) {
+		while (node != null) {
+			stack.push(node);
+			node = node.getLeft();
+		}
+	}
+
+	private void pushLeftmostLeaf(BSTreeNode<E> node) {
+		while (node != null) {
+			stack.push(node);
+			node = node.getLeft() != null ? node.getLeft() : node.getRight();
+		}
+	}
+}
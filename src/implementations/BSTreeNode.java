@@ -1,9 +1,15 @@
 package implementations;
 
-public class BSTreeNode<E extends Comparable<? super E>> {
+import java.io.Serializable;
+
+public class BSTreeNode<E extends Comparable<? super E>> implements Serializable {
+	private static final long serialVersionUID = 2283529207412546342L;
 	private E element;
 	private BSTreeNode<E> left;
 	private BSTreeNode<E> right;
+	private int height;
+	private int size;
+	private Object value;
 	
 	public E getElement() {
 		return element;
@@ -29,7 +35,53 @@ public class BSTreeNode<E extends Comparable<? super E>> {
 		this.right = right;
 	}
 
+	public int getHeight() {
+		return height;
+	}
+
+	public void setHeight(int height) {
+		this.height = height;
+	}
+
+	/**
+	 * @return the number of nodes in the subtree rooted at this node
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Recomputes this node's height and subtree size from its children, which
+	 * must already be up to date.
+	 */
+	void update() {
+		int leftHeight = left == null ? 0 : left.height;
+		int rightHeight = right == null ? 0 : right.height;
+		height = 1 + Math.max(leftHeight, rightHeight);
+		size = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+	}
+
+	/**
+	 * Returns the value attached to this node's element, if any. Trees only
+	 * order nodes by element; the value is free for callers to use.
+	 * 
+	 * @return the attached value, or null if none was set
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	public void setValue(Object value) {
+		this.value = value;
+	}
+
 	public BSTreeNode(E element) {
 		this.element = element;
+		this.height = 1;
+		this.size = 1;
 	}
 }
@@ -0,0 +1,137 @@
+package implementations;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe AVL tree that can be read while other threads are adding to it.
+ * <p>
+ * The contents are held as a {@link PersistentBSTree} version. A write builds
+ * the next version, which copies only the nodes on the path it changes, and
+ * installs it with a single compare-and-set; if another write got there first
+ * it starts again from the newer version. Reads never lock or retry: they
+ * load the current version once and walk a tree that cannot change
+ * underneath them. Every operation therefore
+ * takes effect at the instant of one atomic load or compare-and-set, and
+ * <code>size()</code> always agrees with what <code>contains()</code> sees.
+ * <p>
+ * {@link #snapshot()} returns the current version in O(1), and iterators walk
+ * the version that was current when they were created; neither is affected by
+ * later writes, and iterators never throw
+ * {@link java.util.ConcurrentModificationException}. Nodes returned by
+ * {@link #getRoot()}, {@link #search(Comparable)}, {@link #removeMin()} and
+ * {@link #removeMax()} belong to such a snapshot and must not be modified.
+ *
+ * @param <E> the type of elements maintained by this tree
+ */
+public class ConcurrentBSTree<E extends Comparable<E>> implements BSTreeADT<E>, Serializable {
+    private static final long serialVersionUID = -3305513625722407351L;
+
+    private final AtomicReference<PersistentBSTree<E>> current;
+
+    public ConcurrentBSTree() {
+        current = new AtomicReference<>(PersistentBSTree.<E>empty());
+    }
+
+    /**
+     * Returns the contents of the tree at this instant as an immutable tree
+     * that later writes do not affect. This takes O(1) time and copies
+     * nothing.
+     *
+     * @return the current version of the tree
+     */
+    public PersistentBSTree<E> snapshot() {
+        return current.get();
+    }
+
+    public boolean add(E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot add null element.");
+        }
+        while (true) {
+            PersistentBSTree<E> version = current.get();
+            PersistentBSTree<E> added = version.add(element);
+            if (added == version) {
+                return false;
+            }
+            if (current.compareAndSet(version, added)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(E element) {
+        return current.get().contains(element);
+    }
+
+    public BSTreeNode<E> search(E element) {
+        return current.get().search(element);
+    }
+
+    public BSTreeNode<E> removeMin() {
+        while (true) {
+            PersistentBSTree<E> version = current.get();
+            if (version.isEmpty()) {
+                return null;
+            }
+            BSTreeNode<E> min = version.root;
+            while (min.getLeft() != null) {
+                min = min.getLeft();
+            }
+            if (current.compareAndSet(version, version.withoutMin())) {
+                return min;
+            }
+        }
+    }
+
+    public BSTreeNode<E> removeMax() {
+        while (true) {
+            PersistentBSTree<E> version = current.get();
+            if (version.isEmpty()) {
+                return null;
+            }
+            BSTreeNode<E> max = version.root;
+            while (max.getRight() != null) {
+                max = max.getRight();
+            }
+            if (current.compareAndSet(version, version.withoutMax())) {
+                return max;
+            }
+        }
+    }
+
+    public void clear() {
+        current.set(PersistentBSTree.<E>empty());
+    }
+
+    public int size() {
+        return current.get().size();
+    }
+
+    public boolean isEmpty() {
+        return current.get().isEmpty();
+    }
+
+    public BSTreeNode<E> getRoot() {
+        return current.get().getRoot();
+    }
+
+    public int getHeight() {
+        return current.get().getHeight();
+    }
+
+    public BSTreeIterator<E> inorderIterator() {
+        return current.get().inorderIterator();
+    }
+
+    public Iterator<E> preorderIterator() {
+        return current.get().preorderIterator();
+    }
+
+    public Iterator<E> postorderIterator() {
+        return current.get().postorderIterator();
+    }
+}
@@ -0,0 +1,449 @@
+package implementations;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * AVL tree of Strings laid out in flat arrays instead of node objects.
+ * <p>
+ * A node is an index into parallel <code>int[]</code> arrays holding its left
+ * and right children, height and key position. The characters of every key
+ * are packed one after another into a single shared byte arena, one byte per
+ * character when all of a key's characters fit in Latin-1 and two big-endian
+ * bytes per character otherwise, so the order is exactly that of
+ * {@link String#compareTo(String)}. Adding a key therefore allocates no
+ * objects beyond occasionally growing the arrays, the tree is a handful of
+ * objects for the garbage collector instead of three per key, and searches
+ * compare against bytes stored next to each other rather than following a
+ * pointer to each node's String.
+ * <p>
+ * Because there are no node objects, {@link #getRoot()}, {@link #search(String)},
+ * {@link #removeMin()} and {@link #removeMax()} return new detached nodes that
+ * hold the key and height only; changing them does not affect the tree. The
+ * arena space of removed keys is reclaimed only by {@link #clear()}.
+ */
+public class PackedStringBSTree implements BSTreeADT<String> {
+    private static final long serialVersionUID = -8112480935734216645L;
+    private static final int NIL = -1;
+    // An AVL tree of 2^31 nodes is less than 45 levels high.
+    private static final int MAX_HEIGHT = 64;
+
+    private int[] left;
+    private int[] right;
+    private int[] height;
+    private int[] keyOffset;
+    private int[] keyLength;
+    private boolean[] wide;
+    private byte[] arena;
+    private int arenaUsed;
+    private int nodeCount;
+    private int freeList;
+    private int root;
+    private int size;
+    private transient int modCount;
+    private final int[] path = new int[MAX_HEIGHT];
+
+    public PackedStringBSTree() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize the number of keys to allocate room for up front
+     */
+    public PackedStringBSTree(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        left = new int[capacity];
+        right = new int[capacity];
+        height = new int[capacity];
+        keyOffset = new int[capacity];
+        keyLength = new int[capacity];
+        wide = new boolean[capacity];
+        arena = new byte[capacity * 8];
+        root = NIL;
+        freeList = NIL;
+    }
+
+    public boolean add(String key) {
+        if (key == null) {
+            throw new NullPointerException("Cannot add null element.");
+        }
+        int depth = 0;
+        int node = root;
+        int comparison = 0;
+        while (node != NIL) {
+            comparison = compare(key, node);
+            if (comparison == 0) {
+                return false;
+            }
+            path[depth++] = node;
+            node = comparison < 0 ? left[node] : right[node];
+        }
+        int added = allocate(key);
+        if (depth == 0) {
+            root = added;
+        } else if (comparison < 0) {
+            left[path[depth - 1]] = added;
+        } else {
+            right[path[depth - 1]] = added;
+        }
+        size++;
+        modCount++;
+        retrace(depth);
+        return true;
+    }
+
+    public boolean contains(String key) {
+        if (key == null) {
+            throw new NullPointerException("Cannot check for null element.");
+        }
+        return find(key) != NIL;
+    }
+
+    public BSTreeNode<String> search(String key) {
+        if (key == null) {
+            throw new NullPointerException("Cannot search for null element.");
+        }
+        int node = find(key);
+        return node == NIL ? null : detach(node);
+    }
+
+    private int find(String key) {
+        int node = root;
+        while (node != NIL) {
+            int comparison = compare(key, node);
+            if (comparison == 0) {
+                return node;
+            }
+            node = comparison < 0 ? left[node] : right[node];
+        }
+        return NIL;
+    }
+
+    public BSTreeNode<String> removeMin() {
+        return removeEnd(true);
+    }
+
+    public BSTreeNode<String> removeMax() {
+        return removeEnd(false);
+    }
+
+    private BSTreeNode<String> removeEnd(boolean min) {
+        if (root == NIL) {
+            return null;
+        }
+        int depth = 0;
+        int node = root;
+        int next = min ? left[node] : right[node];
+        while (next != NIL) {
+            path[depth++] = node;
+            node = next;
+            next = min ? left[node] : right[node];
+        }
+        int child = min ? right[node] : left[node];
+        if (depth == 0) {
+            root = child;
+        } else if (min) {
+            left[path[depth - 1]] = child;
+        } else {
+            right[path[depth - 1]] = child;
+        }
+        BSTreeNode<String> removed = detach(node);
+        left[node] = freeList;
+        freeList = node;
+        size--;
+        modCount++;
+        retrace(depth);
+        return removed;
+    }
+
+    public void clear() {
+        root = NIL;
+        freeList = NIL;
+        nodeCount = 0;
+        arenaUsed = 0;
+        size = 0;
+        modCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public BSTreeNode<String> getRoot() {
+        if (root == NIL) {
+            throw new NullPointerException("Tree is empty.");
+        }
+        return detach(root);
+    }
+
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    public Iterator<String> inorderIterator() {
+        return new PackedIterator(BSTreeIterator.Traversal.INORDER);
+    }
+
+    public Iterator<String> preorderIterator() {
+        return new PackedIterator(BSTreeIterator.Traversal.PREORDER);
+    }
+
+    public Iterator<String> postorderIterator() {
+        return new PackedIterator(BSTreeIterator.Traversal.POSTORDER);
+    }
+
+    /**
+     * Compares a key with the key of a node, with the same result as
+     * <code>key.compareTo(nodeKey)</code>.
+     */
+    private int compare(String key, int node) {
+        int offset = keyOffset[node];
+        int length = keyLength[node];
+        int common = Math.min(key.length(), length);
+        if (!wide[node]) {
+            for (int i = 0; i < common; i++) {
+                int difference = key.charAt(i) - (arena[offset + i] & 0xFF);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+        } else {
+            for (int i = 0; i < common; i++) {
+                int stored = ((arena[offset + 2 * i] & 0xFF) << 8) | (arena[offset + 2 * i + 1] & 0xFF);
+                int difference = key.charAt(i) - stored;
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+        }
+        return key.length() - length;
+    }
+
+    private int allocate(String key) {
+        int node;
+        if (freeList != NIL) {
+            node = freeList;
+            freeList = left[node];
+        } else {
+            if (nodeCount == left.length) {
+                int capacity = nodeCount * 2;
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                height = Arrays.copyOf(height, capacity);
+                keyOffset = Arrays.copyOf(keyOffset, capacity);
+                keyLength = Arrays.copyOf(keyLength, capacity);
+                wide = Arrays.copyOf(wide, capacity);
+            }
+            node = nodeCount++;
+        }
+        boolean isWide = false;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) > 0xFF) {
+                isWide = true;
+                break;
+            }
+        }
+        int bytes = isWide ? 2 * key.length() : key.length();
+        if (arenaUsed + bytes > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaUsed + bytes, arena.length * 2));
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (isWide) {
+                arena[arenaUsed + 2 * i] = (byte) (c >>> 8);
+                arena[arenaUsed + 2 * i + 1] = (byte) c;
+            } else {
+                arena[arenaUsed + i] = (byte) c;
+            }
+        }
+        keyOffset[node] = arenaUsed;
+        keyLength[node] = key.length();
+        wide[node] = isWide;
+        arenaUsed += bytes;
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 1;
+        return node;
+    }
+
+    private String key(int node) {
+        int offset = keyOffset[node];
+        int length = keyLength[node];
+        if (!wide[node]) {
+            return new String(arena, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (((arena[offset + 2 * i] & 0xFF) << 8) | (arena[offset + 2 * i + 1] & 0xFF));
+        }
+        return new String(chars);
+    }
+
+    private BSTreeNode<String> detach(int node) {
+        BSTreeNode<String> detached = new BSTreeNode<>(key(node));
+        detached.setHeight(height[node]);
+        return detached;
+    }
+
+    /**
+     * Walks back up the first <code>depth</code> entries of the path, updating
+     * heights and rotating where needed, until a subtree's height is unchanged.
+     */
+    private void retrace(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int before = height[node];
+            int balanced = rebalance(node);
+            if (balanced != node) {
+                if (i == 0) {
+                    root = balanced;
+                } else if (left[path[i - 1]] == node) {
+                    left[path[i - 1]] = balanced;
+                } else {
+                    right[path[i - 1]] = balanced;
+                }
+            }
+            if (height[balanced] == before) {
+                return;
+            }
+        }
+    }
+
+    private int rebalance(int node) {
+        updateHeight(node);
+        int balance = heightOf(left[node]) - heightOf(right[node]);
+        if (balance > 1) {
+            if (heightOf(left[left[node]]) < heightOf(right[left[node]])) {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (heightOf(right[right[node]]) < heightOf(left[right[node]])) {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private void updateHeight(int node) {
+        height[node] = 1 + Math.max(heightOf(left[node]), heightOf(right[node]));
+    }
+
+    private int heightOf(int node) {
+        return node == NIL ? 0 : height[node];
+    }
+
+    /**
+     * Lazy, fail-fast iterator that keeps node indices on an int stack, in the
+     * same way as {@link BSTreeIterator}.
+     */
+    private class PackedIterator implements Iterator<String> {
+        private final BSTreeIterator.Traversal traversal;
+        private final int expectedModCount;
+        private int[] stack = new int[MAX_HEIGHT];
+        private int top;
+
+        PackedIterator(BSTreeIterator.Traversal traversal) {
+            this.traversal = traversal;
+            this.expectedModCount = modCount;
+            switch (traversal) {
+                case INORDER:
+                    pushLeft(root);
+                    break;
+                case PREORDER:
+                    if (root != NIL) {
+                        push(root);
+                    }
+                    break;
+                case POSTORDER:
+                    pushLeftmostLeaf(root);
+                    break;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        @Override
+        public String next() throws NoSuchElementException {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (top == 0) {
+                throw new NoSuchElementException();
+            }
+            int node = stack[--top];
+            switch (traversal) {
+                case INORDER:
+                    pushLeft(right[node]);
+                    break;
+                case PREORDER:
+                    if (right[node] != NIL) {
+                        push(right[node]);
+                    }
+                    if (left[node] != NIL) {
+                        push(left[node]);
+                    }
+                    break;
+                case POSTORDER:
+                    if (top > 0 && left[stack[top - 1]] == node) {
+                        pushLeftmostLeaf(right[stack[top - 1]]);
+                    }
+                    break;
+            }
+            return key(node);
+        }
+
+        private void push(int node) {
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = node;
+        }
+
+        private void pushLeft(int node) {
+            while (node != NIL) {
+                push(node);
+                node = left[node];
+            }
+        }
+
+        private void pushLeftmostLeaf(int node) {
+            while (node != NIL) {
+                push(node);
+                node = left[node] != NIL ? left[node] : right[node];
+            }
+        }
+    }
+}
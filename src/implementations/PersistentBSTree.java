@@ -0,0 +1,283 @@
+package implementations;
+
+import utilities.Iterator;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable AVL tree. Every update returns a new version of the tree and
+ * leaves the one it was called on untouched: only the nodes on the path to
+ * the change are copied, and every other subtree is shared between the two
+ * versions. An update therefore costs O(log n) time and allocates O(log n)
+ * nodes, and holding on to an old version is as cheap as keeping a reference.
+ * <p>
+ * Nodes reachable from a version, including those returned by
+ * {@link #getRoot()} and {@link #search(Comparable)}, are shared with other
+ * versions and must not be modified.
+ *
+ * @param <E> the type of elements maintained by this tree
+ */
+public final class PersistentBSTree<E extends Comparable<E>> implements Serializable {
+    private static final long serialVersionUID = -1480723317049566128L;
+    private static final PersistentBSTree<?> EMPTY = new PersistentBSTree<>(null, 0);
+
+    final BSTreeNode<E> root;
+    private final int size;
+
+    private PersistentBSTree(BSTreeNode<E> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the empty tree
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Comparable<E>> PersistentBSTree<E> empty() {
+        return (PersistentBSTree<E>) EMPTY;
+    }
+
+    /**
+     * Returns a version of this tree that also holds the given element.
+     *
+     * @param element the element to add
+     * @return the new version, or this tree if it already holds the element
+     * @throws NullPointerException if the element is null
+     */
+    public PersistentBSTree<E> add(E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot add null element.");
+        }
+        BSTreeNode<E> added = insert(root, element, null, false);
+        return added == root ? this : new PersistentBSTree<>(added, size + 1);
+    }
+
+    /**
+     * Returns a version of this tree in which the given element's node carries
+     * the given value, adding the element if it is not in the tree yet.
+     *
+     * @param element the element to add or update
+     * @param value the value to attach to its node
+     * @return the new version, or this tree if nothing changed
+     * @throws NullPointerException if the element is null
+     */
+    public PersistentBSTree<E> put(E element, Object value) {
+        if (element == null) {
+            throw new NullPointerException("Cannot add null element.");
+        }
+        BSTreeNode<E> updated = insert(root, element, value, true);
+        if (updated == root) {
+            return this;
+        }
+        return new PersistentBSTree<>(updated, size + (contains(element) ? 0 : 1));
+    }
+
+    /**
+     * @return a version of this tree without its smallest element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public PersistentBSTree<E> withoutMin() {
+        if (root == null) {
+            throw new NoSuchElementException("Tree is empty.");
+        }
+        return new PersistentBSTree<>(withoutMin(root), size - 1);
+    }
+
+    /**
+     * @return a version of this tree without its largest element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public PersistentBSTree<E> withoutMax() {
+        if (root == null) {
+            throw new NoSuchElementException("Tree is empty.");
+        }
+        return new PersistentBSTree<>(withoutMax(root), size - 1);
+    }
+
+    public boolean contains(E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot check for null element.");
+        }
+        return find(element) != null;
+    }
+
+    public BSTreeNode<E> search(E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot search for null element.");
+        }
+        return find(element);
+    }
+
+    private BSTreeNode<E> find(E element) {
+        BSTreeNode<E> current = root;
+        while (current != null) {
+            int comparison = element.compareTo(current.getElement());
+            if (comparison == 0) {
+                return current;
+            }
+            current = comparison < 0 ? current.getLeft() : current.getRight();
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public BSTreeNode<E> getRoot() {
+        if (root == null) {
+            throw new NullPointerException("Tree is empty.");
+        }
+        return root;
+    }
+
+    public int getHeight() {
+        return height(root);
+    }
+
+    /**
+     * @see BSTree#select(int)
+     */
+    public BSTreeNode<E> select(int index) {
+        return BSTree.select(root, index);
+    }
+
+    /**
+     * @see BSTree#rank(Comparable)
+     */
+    public int rank(E element) {
+        return BSTree.rank(root, element);
+    }
+
+    /**
+     * @see BSTree#countRange(Comparable, Comparable)
+     */
+    public int countRange(E low, E high) {
+        return Math.max(0, rank(high) - rank(low));
+    }
+
+    /**
+     * @see BSTree#floor(Comparable)
+     */
+    public BSTreeNode<E> floor(E element) {
+        return BSTree.floor(root, element);
+    }
+
+    /**
+     * @see BSTree#ceiling(Comparable)
+     */
+    public BSTreeNode<E> ceiling(E element) {
+        return BSTree.ceiling(root, element);
+    }
+
+    /**
+     * @see BSTree#rangeIterator(Comparable, Comparable)
+     */
+    public BSTreeIterator<E> rangeIterator(E low, E high) {
+        return new BSTreeIterator<E>(null, root, low, high);
+    }
+
+    /**
+     * @see BSTree#prefixIterator(String)
+     */
+    public BSTreeIterator<E> prefixIterator(String prefix) {
+        return new BSTreeIterator<E>(null, root, BSTree.<E>prefixLow(prefix), BSTree.<E>prefixHigh(prefix));
+    }
+
+    public BSTreeIterator<E> inorderIterator() {
+        return new BSTreeIterator<E>(root, BSTreeIterator.Traversal.INORDER);
+    }
+
+    public Iterator<E> preorderIterator() {
+        return new BSTreeIterator<E>(root, BSTreeIterator.Traversal.PREORDER);
+    }
+
+    public Iterator<E> postorderIterator() {
+        return new BSTreeIterator<E>(root, BSTreeIterator.Traversal.POSTORDER);
+    }
+
+    // The helpers below build new nodes and never modify their arguments.
+    // Recursion depth is bounded by the AVL height, about 1.44 log2(n).
+
+    private static <E extends Comparable<E>> BSTreeNode<E> insert(BSTreeNode<E> node, E element, Object value, boolean replaceValue) {
+        if (node == null) {
+            BSTreeNode<E> leaf = new BSTreeNode<>(element);
+            leaf.setValue(value);
+            return leaf;
+        }
+        int comparison = element.compareTo(node.getElement());
+        if (comparison == 0) {
+            if (!replaceValue || node.getValue() == value) {
+                return node;
+            }
+            BSTreeNode<E> updated = copy(node, node.getLeft(), node.getRight());
+            updated.setValue(value);
+            return updated;
+        }
+        if (comparison < 0) {
+            BSTreeNode<E> left = insert(node.getLeft(), element, value, replaceValue);
+            return left == node.getLeft() ? node : balance(node, left, node.getRight());
+        }
+        BSTreeNode<E> right = insert(node.getRight(), element, value, replaceValue);
+        return right == node.getRight() ? node : balance(node, node.getLeft(), right);
+    }
+
+    private static <E extends Comparable<E>> BSTreeNode<E> withoutMin(BSTreeNode<E> node) {
+        if (node.getLeft() == null) {
+            return node.getRight();
+        }
+        return balance(node, withoutMin(node.getLeft()), node.getRight());
+    }
+
+    private static <E extends Comparable<E>> BSTreeNode<E> withoutMax(BSTreeNode<E> node) {
+        if (node.getRight() == null) {
+            return node.getLeft();
+        }
+        return balance(node, node.getLeft(), withoutMax(node.getRight()));
+    }
+
+    /**
+     * Returns a balanced copy of node with the given children.
+     */
+    private static <E extends Comparable<E>> BSTreeNode<E> balance(BSTreeNode<E> node, BSTreeNode<E> left, BSTreeNode<E> right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.getLeft()) < height(left.getRight())) {
+                // Left-right case: the left child's right subtree rises to the top.
+                BSTreeNode<E> pivot = left.getRight();
+                return copy(pivot, copy(left, left.getLeft(), pivot.getLeft()), copy(node, pivot.getRight(), right));
+            }
+            return copy(left, left.getLeft(), copy(node, left.getRight(), right));
+        }
+        if (difference < -1) {
+            if (height(right.getRight()) < height(right.getLeft())) {
+                BSTreeNode<E> pivot = right.getLeft();
+                return copy(pivot, copy(node, left, pivot.getLeft()), copy(right, pivot.getRight(), right.getRight()));
+            }
+            return copy(right, copy(node, left, right.getLeft()), right.getRight());
+        }
+        return copy(node, left, right);
+    }
+
+    private static <E extends Comparable<E>> BSTreeNode<E> copy(BSTreeNode<E> node, BSTreeNode<E> left, BSTreeNode<E> right) {
+        BSTreeNode<E> copy = new BSTreeNode<>(node.getElement());
+        copy.setValue(node.getValue());
+        copy.setLeft(left);
+        copy.setRight(right);
+        copy.update();
+        return copy;
+    }
+
+    private static int height(BSTreeNode<?> node) {
+        return node == null ? 0 : node.getHeight();
+    }
+
+    private Object readResolve() {
+        return root == null ? EMPTY : this;
+    }
+}
@@ -0,0 +1,89 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Class Description:
+ * Adds words to an off-heap index and removes files from it, checking what
+ * its cursor lists afterwards.
+ */
+
+public class OffHeapIndexTest {
+	// Attributes
+	private OffHeapIndex index;
+
+	@Before
+	public void setUp() throws IOException {
+		index = new OffHeapIndex();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		index.close();
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.OffHeapIndex#removeFile(int)}
+	 * to remove every occurrence in a file, drop words found only there, and
+	 * keep the occurrences in other files in the order they were added.
+	 */
+	@Test
+	public void testRemoveFile() {
+		index.add("shared", 0, 1);
+		index.add("shared", 1, 2);
+		index.add("only", 1, 3);
+		index.add("shared", 2, 4);
+		index.add("other", 2, 5);
+		index.removeFile(1);
+		assertEquals("other 2:5\nshared 0:1 2:4\n", ParallelIndexerTest.dump(index.cursor()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.OffHeapIndex#removeFile(int)}
+	 * to compact a chain of several blocks, and to append to the compacted
+	 * chain afterwards.
+	 */
+	@Test
+	public void testRemoveFile_ManyBlocks() {
+		StringBuilder kept = new StringBuilder("word 0:");
+		for (int line = 1; line <= 3000; line++) {
+			index.add("word", line % 3 == 0 ? 1 : 0, line);
+			if (line % 3 != 0) {
+				kept.append(line == 1 ? "" : ",").append(line);
+			}
+		}
+		index.removeFile(1);
+		assertEquals(kept + "\n", ParallelIndexerTest.dump(index.cursor()));
+
+		for (int line = 3001; line <= 3100; line++) {
+			index.add("word", 0, line);
+			kept.append(',').append(line);
+		}
+		index.add("word", 1, 1);
+		assertEquals(kept + " 1:1\n", ParallelIndexerTest.dump(index.cursor()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.OffHeapIndex#removeFile(int)}
+	 * to leave a cursor with no words once every file has been removed.
+	 */
+	@Test
+	public void testRemoveFile_EveryFile() {
+		assertEquals("", ParallelIndexerTest.dump(index.cursor()));
+		index.add("a", 0, 1);
+		index.add("b", 1, 1);
+		index.removeFile(0);
+		assertEquals("b 1:1\n", ParallelIndexerTest.dump(index.cursor()));
+		index.removeFile(1);
+		assertEquals("", ParallelIndexerTest.dump(index.cursor()));
+	}
+}
@@ -0,0 +1,166 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import implementations.BSTree;
+
+/**
+ * Class Description:
+ * Indexes the same files on one thread and on several, splitting the larger
+ * files into many small ranges, and checks that every word lists the same
+ * files and lines either way.
+ */
+
+public class ParallelIndexerTest {
+	// Attributes
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String[] TERMINATORS = {"\n", "\r\n", "\r", "\u2028"};
+
+	private List<String> files;
+	private int[] ids;
+	private int needleLine;
+
+	/**
+	 * Writes a file of long and short lines ending in every terminator, one
+	 * ending in carriage returns only, a few small files, and an empty one.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		Random random = new Random(7);
+		files = new ArrayList<>();
+
+		StringBuilder mixed = new StringBuilder();
+		int line = 1;
+		for (int i = 0; i < 2000; i++) {
+			// Some lines are longer than a range, so ranges start mid-line.
+			// Every line has a word, so a lone '\r' is never read as "\r\n".
+			int words = random.nextInt(10) == 0 ? 60 : 1 + random.nextInt(5);
+			for (int j = 0; j < words; j++) {
+				mixed.append(j == 0 ? "" : " ").append("w").append(random.nextInt(300));
+			}
+			mixed.append(TERMINATORS[random.nextInt(TERMINATORS.length)]);
+			line++;
+		}
+		// No terminator after the last line.
+		mixed.append("needle");
+		needleLine = line;
+		files.add(write("mixed.txt", mixed.toString()));
+
+		StringBuilder returns = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			returns.append("cr").append(i % 17).append('\r');
+		}
+		files.add(write("returns.txt", returns.toString()));
+
+		for (int i = 0; i < 5; i++) {
+			files.add(write("small" + i + ".txt", "w" + i + " w1\r\nw2\nw" + (i + 1) + "\n"));
+		}
+		files.add(write("empty.txt", ""));
+
+		ids = new int[files.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = i;
+		}
+	}
+
+	private String write(String name, String text) throws IOException {
+		Path file = folder.getRoot().toPath().resolve(name);
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+		return file.toString();
+	}
+
+	/**
+	 * Lists every word with its files and lines, merging the trees in the
+	 * order the indexer returned them, as WordTracker does.
+	 */
+	private static String dump(List<BSTree<String>> trees) {
+		List<IndexCursor> sources = new ArrayList<>();
+		for (BSTree<String> tree : trees) {
+			sources.add(new TreeCursor(tree));
+		}
+		return dump(new MergingCursor(sources));
+	}
+
+	/**
+	 * Lists every word of a cursor on a line of its own, followed by each
+	 * file id and the lines in that file, as in "word 0:1,4 2:7".
+	 */
+	static String dump(IndexCursor cursor) {
+		StringBuilder out = new StringBuilder();
+		while (cursor.next()) {
+			Postings postings = cursor.postings();
+			out.append(cursor.word());
+			for (int i = 0; i < postings.fileCount(); i++) {
+				out.append(' ').append(postings.fileId(i)).append(':');
+				for (int j = 0; j < postings.lineCount(i); j++) {
+					out.append(j == 0 ? "" : ",").append(postings.line(i, j));
+				}
+			}
+			out.append('\n');
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.ParallelIndexer#index(List, int[])}
+	 * to list the same files and lines for every word with one thread and with
+	 * several, whatever the number of ranges the files are split into.
+	 */
+	@Test
+	public void testIndex_SameAsSequential() {
+		List<BSTree<String>> sequential = new ParallelIndexer(1).index(files, ids);
+		assertEquals("Files were split on one thread.", 1, sequential.size());
+		String expected = dump(sequential);
+		assertTrue(expected.contains("\nneedle 0:" + needleLine + "\n"));
+
+		// More threads make smaller ranges, down to a few hundred bytes.
+		for (int threads : new int[] {2, 4, 16}) {
+			List<BSTree<String>> parallel = new ParallelIndexer(threads, 16).index(files, ids);
+			assertTrue("The large file was not split.", parallel.size() > 3);
+			assertEquals("threads " + threads, expected, dump(parallel));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.ParallelIndexer#index(List, int[])}
+	 * to number the lines of a later range after every line of the earlier
+	 * ones, counting a carriage return and line feed as one terminator.
+	 */
+	@Test
+	public void testIndex_LinesShiftedAcrossRanges() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 1; i <= 100; i++) {
+			text.append("line").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+		}
+		List<String> one = Arrays.asList(write("numbered.txt", text.toString()));
+		List<BSTree<String>> trees = new ParallelIndexer(4, 16).index(one, new int[] {3});
+		assertTrue(trees.size() > 1);
+
+		StringBuilder expected = new StringBuilder();
+		for (int i = 1; i <= 100; i++) {
+			expected.append("line").append(i).append(" 3:").append(i).append('\n');
+		}
+		String actual = dump(trees);
+		for (String entry : expected.toString().split("\n")) {
+			assertTrue("Missing " + entry, actual.contains(entry + "\n"));
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Class Description:
+ * Feeds requests to a query server as a client would on standard input and
+ * checks its exact replies, including error replies and queries answered
+ * while other clients change the index.
+ */
+
+public class QueryServerTest {
+	// Attributes
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String N = System.lineSeparator();
+
+	private QueryServer server;
+	private String a;
+	private String b;
+
+	@Before
+	public void setUp() throws IOException {
+		a = write("a.txt", "apple pie\napple\n");
+		b = write("b.txt", "banana\napple\n");
+		WordTracker tracker = new WordTracker(false, folder.getRoot().toPath().resolve("repository"));
+		tracker.processFiles(Arrays.asList(a), 1);
+		tracker.saveRepository();
+		server = new QueryServer(tracker, 2);
+	}
+
+	private String write(String name, String text) throws IOException {
+		Path file = folder.getRoot().toPath().resolve(name);
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+		return file.toString();
+	}
+
+	private String serve(String... requests) throws IOException {
+		StringBuilder input = new StringBuilder();
+		for (String request : requests) {
+			input.append(request).append('\n');
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		server.serve(new ByteArrayInputStream(input.toString().getBytes(Charset.defaultCharset())), out);
+		return new String(out.toByteArray(), Charset.defaultCharset());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.QueryServer#serve(java.io.InputStream, java.io.OutputStream)}
+	 * to answer queries in every format and end the session on QUIT.
+	 */
+	@Test
+	public void testServe_Query() throws IOException {
+		assertEquals(
+			"apple: " + a + " (2 occurrences at lines [1, 2]), " + N + "OK" + N
+			+ "apple: [" + a + "]" + N + "OK" + N
+			+ "pie: " + a + " (lines [1]), " + N + "OK" + N
+			+ "OK" + N
+			+ "OK bye" + N,
+			serve("QUERY apple", "  query APP* -pf  ", "", "QUERY p..q -pl", "QUERY cherry", "QUIT", "QUERY apple"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.QueryServer#serve(java.io.InputStream, java.io.OutputStream)}
+	 * to reply ERR to malformed requests and carry on with the session.
+	 */
+	@Test
+	public void testServe_Errors() throws IOException {
+		String missing = folder.getRoot().toPath().resolve("missing.txt").toString();
+		assertEquals(
+			"ERR unknown command FETCH" + N
+			+ "ERR usage: QUERY <word|prefix*|low..high> [-pf|-pl|-po]" + N
+			+ "ERR usage: QUERY <word|prefix*|low..high> [-pf|-pl|-po]" + N
+			+ "ERR invalid option -px" + N
+			+ "ERR usage: INDEX <input>..." + N
+			+ "ERR not found: " + missing + N
+			+ "ERR usage: DROP <file>..." + N
+			+ "ERR not indexed: " + b + N
+			+ "apple: " + a + " (2 occurrences at lines [1, 2]), " + N + "OK" + N,
+			serve("FETCH apple", "QUERY", "QUERY apple -po extra", "QUERY apple -px", "INDEX",
+				"INDEX " + missing, "DROP", "DROP " + b, "QUERY apple"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.QueryServer#serve(java.io.InputStream, java.io.OutputStream)}
+	 * to index, drop and compact, with later queries seeing each change.
+	 */
+	@Test
+	public void testServe_ChangeIndex() throws IOException {
+		assertEquals(
+			"OK indexed 1" + N
+			+ "apple: " + a + " (2 occurrences at lines [1, 2]), " + b + " (1 occurrences at lines [2]), " + N + "OK" + N
+			+ "OK dropped 1" + N
+			+ "OK compacted" + N
+			+ "apple: " + b + " (1 occurrences at lines [2]), " + N + "OK" + N
+			+ "OK" + N,
+			serve("INDEX " + b, "QUERY apple", "DROP " + a, "COMPACT", "QUERY apple", "QUERY pie"));
+		assertEquals("banana: [" + b + "]" + N + "OK" + N, serve("QUERY banana -pf"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.QueryServer#serve(java.io.InputStream, java.io.OutputStream)}
+	 * to count repeated queries as cache hits, and to look words up again
+	 * after every INDEX, DROP and COMPACT.
+	 */
+	@Test
+	public void testServe_LookupCache() throws IOException {
+		String before = "apple: " + a + " (lines [1, 2]), " + N + "OK" + N;
+		assertEquals(before + before + "OK hits 1 misses 1" + N, serve("QUERY apple -pl", "QUERY apple -pl", "STATS"));
+		String after = "apple: " + b + " (lines [2]), " + N + "OK" + N;
+		assertEquals(
+			"OK indexed 1" + N
+			+ "apple: " + a + " (lines [1, 2]), " + b + " (lines [2]), " + N + "OK" + N
+			+ "OK dropped 1" + N + after
+			+ "OK compacted" + N + after
+			+ "OK hits 1 misses 4" + N,
+			serve("INDEX " + b, "QUERY apple -pl", "DROP " + a, "QUERY apple -pl", "COMPACT", "QUERY apple -pl", "STATS"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.QueryServer#serve(java.io.InputStream, java.io.OutputStream)}
+	 * to answer clients served at once with the same replies as one at a
+	 * time, while another client indexes and drops a file none of the queries
+	 * match.
+	 */
+	@Test
+	public void testServe_ConcurrentClients() throws Exception {
+		String other = write("other.txt", "zebra\nzebra zebra\n");
+		List<String> queries = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			queries.add(i % 3 == 0 ? "QUERY apple" : i % 3 == 1 ? "QUERY a..q -pl" : "QUERY pie -pf");
+		}
+		String[] requests = queries.toArray(new String[0]);
+		String expected = serve(requests);
+
+		ExecutorService clients = Executors.newFixedThreadPool(5);
+		try {
+			List<Future<String>> replies = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				replies.add(clients.submit(() -> serve(requests)));
+			}
+			Future<String> writer = clients.submit(() -> {
+				StringBuilder out = new StringBuilder();
+				for (int i = 0; i < 5; i++) {
+					out.append(serve("INDEX " + other, "DROP " + other));
+				}
+				return out.toString();
+			});
+			for (Future<String> reply : replies) {
+				assertEquals(expected, reply.get());
+			}
+			assertEquals(5, writer.get().split("OK dropped 1" + N, -1).length - 1);
+		} finally {
+			clients.shutdown();
+		}
+	}
+}
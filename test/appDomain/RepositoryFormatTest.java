@@ -0,0 +1,205 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import implementations.AVLTree;
+import implementations.BSTreeIterator;
+import implementations.BSTreeNode;
+
+/**
+ * Class Description:
+ * Round trips of word trees through RepositoryWriter and RepositoryIndex,
+ * covering the front-coded blocks, the varint and zigzag postings and the
+ * header checks of the repository format.
+ */
+
+public class RepositoryFormatTest {
+	// Attributes
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final List<String> FILES = Arrays.asList("a.txt", "dir/b.txt", "caf\u00e9.txt");
+
+	/**
+	 * Builds a tree of count words that share long prefixes, so most entries
+	 * are front-coded, with postings in several files.
+	 */
+	private static AVLTree<String> tree(int count) {
+		AVLTree<String> tree = new AVLTree<String>();
+		for (int i = 0; i < count; i++) {
+			Postings postings = new Postings();
+			postings.add(i % 3, i + 1);
+			postings.add(i % 3, i + 1);
+			postings.add((i + 1) % 3, 1000000 + i);
+			// A line before the previous one needs a negative delta.
+			postings.add((i + 1) % 3, 7);
+			String word = i % 5 == 0 ? "caf\u00e9" + i : String.format("word%05d", i * 7);
+			tree.addOrGet(word).setValue(postings);
+		}
+		return tree;
+	}
+
+	private Path write(AVLTree<String> tree, BitSet dropped, long generation) throws IOException {
+		Path file = folder.getRoot().toPath().resolve("test.idx");
+		try (RepositoryWriter writer = new RepositoryWriter(file, FILES, dropped, generation)) {
+			BSTreeIterator<String> it = tree.inorderIterator();
+			while (it.hasNext()) {
+				BSTreeNode<String> node = it.nextNode();
+				writer.write(node.getElement(), (Postings) node.getValue());
+			}
+			writer.commit();
+		}
+		return file;
+	}
+
+	static void assertPostingsEquals(Postings expected, Postings actual) {
+		assertEquals("File count differs.", expected.fileCount(), actual.fileCount());
+		for (int i = 0; i < expected.fileCount(); i++) {
+			assertEquals(expected.fileId(i), actual.fileId(i));
+			assertEquals(expected.lineCount(i), actual.lineCount(i));
+			for (int j = 0; j < expected.lineCount(i); j++) {
+				assertEquals(expected.line(i, j), actual.line(i, j));
+			}
+		}
+	}
+
+	private void assertRoundTrip(int count) throws IOException {
+		AVLTree<String> tree = tree(count);
+		BitSet dropped = new BitSet();
+		dropped.set(1);
+		RepositoryIndex index = RepositoryIndex.open(write(tree, dropped, 42));
+
+		assertEquals(count, index.wordCount());
+		assertEquals(42, index.generation());
+		assertEquals(FILES, index.fileNames());
+		assertEquals(dropped, index.droppedFiles());
+
+		IndexCursor cursor = index.cursor();
+		BSTreeIterator<String> it = tree.inorderIterator();
+		while (it.hasNext()) {
+			BSTreeNode<String> node = it.nextNode();
+			assertTrue("Missing word " + node.getElement(), cursor.next());
+			assertEquals(node.getElement(), cursor.word());
+			assertPostingsEquals((Postings) node.getValue(), cursor.postings());
+			assertPostingsEquals((Postings) node.getValue(), index.lookup(node.getElement()));
+		}
+		assertFalse("Extra word in the file.", cursor.next());
+		assertNull(index.lookup("zzz"));
+		assertNull(index.lookup(""));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.RepositoryIndex#open(Path)}
+	 * to read back a file written from an empty tree.
+	 */
+	@Test
+	public void testRoundTrip_Empty() throws IOException {
+		assertRoundTrip(0);
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.RepositoryIndex#open(Path)}
+	 * to read back a file holding a single word.
+	 */
+	@Test
+	public void testRoundTrip_SingleWord() throws IOException {
+		assertRoundTrip(1);
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.RepositoryIndex#open(Path)}
+	 * to read back files whose last block is full, one word short of full, or
+	 * holds a single word.
+	 */
+	@Test
+	public void testRoundTrip_BlockBoundaries() throws IOException {
+		int block = RepositoryFormat.BLOCK_SIZE;
+		for (int count : new int[] {block - 1, block, block + 1, 2 * block, 2 * block + 1, 50 * block + 3}) {
+			assertRoundTrip(count);
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.IndexCursor#seek(String)}
+	 * to position a cursor on the first word at or after a target, within a
+	 * block and across block boundaries.
+	 */
+	@Test
+	public void testSeek() throws IOException {
+		AVLTree<String> tree = tree(5 * RepositoryFormat.BLOCK_SIZE);
+		RepositoryIndex index = RepositoryIndex.open(write(tree, new BitSet(), 1));
+		for (int i = 0; i < tree.size(); i++) {
+			String word = tree.select(i).getElement();
+			IndexCursor cursor = index.cursor();
+			cursor.seek(word);
+			assertTrue(cursor.next());
+			assertEquals(word, cursor.word());
+			if (i > 0) {
+				// Between the previous word and this one, seek lands on this one.
+				cursor = index.cursor();
+				cursor.seek(tree.select(i - 1).getElement() + "\u0000");
+				assertTrue(cursor.next());
+				assertEquals(word, cursor.word());
+			}
+		}
+		IndexCursor cursor = index.cursor();
+		cursor.seek("zzz");
+		assertFalse(cursor.next());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.RepositoryIndex#open(Path)}
+	 * to reject a file written by an older or a newer version of the format.
+	 */
+	@Test
+	public void testOpen_UnsupportedVersion() throws IOException {
+		Path file = write(tree(3), new BitSet(), 1);
+		for (int version : new int[] {RepositoryFormat.VERSION - 1, RepositoryFormat.VERSION + 1}) {
+			patchInt(file, 4, version);
+			try {
+				RepositoryIndex.open(file);
+				fail("Version " + version + " was accepted.");
+			} catch (IOException e) {
+				assertTrue(e.getMessage().contains("version"));
+			}
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.RepositoryIndex#open(Path)}
+	 * to reject a file that is not a repository.
+	 */
+	@Test(expected = IOException.class)
+	public void testOpen_BadMagic() throws IOException {
+		Path file = write(tree(3), new BitSet(), 1);
+		patchInt(file, 0, 0);
+		RepositoryIndex.open(file);
+	}
+
+	private static void patchInt(Path file, int offset, int value) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			ByteBuffer bytes = ByteBuffer.allocate(4).putInt(value);
+			bytes.flip();
+			channel.write(bytes, offset);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import implementations.AVLTree;
+
+/**
+ * Class Description:
+ * Saves, drops, compacts and reopens repositories in a temporary directory,
+ * including directories left behind by an interrupted save or compaction.
+ */
+
+public class RepositoryTest {
+	// Attributes
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final List<String> FILES = Arrays.asList("a.txt", "b.txt", "c.txt");
+
+	private Path directory;
+
+	@Before
+	public void setUp() {
+		directory = folder.getRoot().toPath().resolve("repository");
+	}
+
+	/**
+	 * Builds a cursor over words given as in {@link ParallelIndexerTest#dump},
+	 * such as "word 0:1,4 2:7".
+	 */
+	static IndexCursor words(String... entries) {
+		AVLTree<String> tree = new AVLTree<String>();
+		for (String entry : entries) {
+			String[] parts = entry.split(" ");
+			Postings postings = new Postings();
+			for (int i = 1; i < parts.length; i++) {
+				String[] file = parts[i].split(":");
+				for (String line : file[1].split(",")) {
+					postings.add(Integer.parseInt(file[0]), Integer.parseInt(line));
+				}
+			}
+			tree.addOrGet(parts[0]).setValue(postings);
+		}
+		return new TreeCursor(tree);
+	}
+
+	private static BitSet files(int... ids) {
+		BitSet set = new BitSet();
+		for (int id : ids) {
+			set.set(id);
+		}
+		return set;
+	}
+
+	private static String contents(Repository repository) {
+		return ParallelIndexerTest.dump(repository.cursor(new BitSet()));
+	}
+
+	/**
+	 * Saves two segments: the first indexes files 0 and 1, the second
+	 * re-indexes file 0 and drops its older postings.
+	 */
+	private Repository saveAndDrop() throws IOException {
+		Repository repository = Repository.open(directory);
+		repository.append(words("both 0:1 1:2", "gone 0:3", "kept 1:4"), FILES, new BitSet());
+		repository.append(words("both 0:9", "new 0:8"), FILES, files(0));
+		return repository;
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.MaskingCursor#next()}
+	 * to hide the postings of masked files and skip words left without any.
+	 */
+	@Test
+	public void testMaskingCursor() {
+		IndexCursor masked = new MaskingCursor(words("a 0:1 2:5", "b 2:3", "c 1:1,2 2:9"), files(2));
+		assertEquals("a 0:1\nc 1:1,2\n", ParallelIndexerTest.dump(masked));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Repository#cursor(BitSet)}
+	 * to hide the postings of a dropped file in every older segment once the
+	 * repository is reopened, keeping the postings saved with the drop.
+	 */
+	@Test
+	public void testDrop_AfterReopen() throws IOException {
+		saveAndDrop();
+		Repository reopened = Repository.open(directory);
+		assertEquals(2, reopened.segmentCount());
+		assertEquals("both 1:2 0:9\nkept 1:4\nnew 0:8\n", contents(reopened));
+		assertEquals("both 0:9\nnew 0:8\n", ParallelIndexerTest.dump(reopened.cursor(files(1))));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Repository#lookup(String, BitSet)}
+	 * to find the same postings for each word as the cursor lists, with and
+	 * without files dropped since the last save.
+	 */
+	@Test
+	public void testLookup_SameAsCursor() throws IOException {
+		Repository repository = saveAndDrop();
+		repository.append(words("both 2:1", "gone 2:2"), FILES, files(1));
+		assertEquals("both 0:9 2:1\ngone 2:2\nnew 0:8\n", contents(repository));
+		for (BitSet laterDrops : new BitSet[] {new BitSet(), files(0), files(2)}) {
+			StringBuilder found = new StringBuilder();
+			for (String word : new String[] {"both", "gone", "kept", "missing", "new"}) {
+				Postings postings = repository.lookup(word, laterDrops);
+				if (postings != null) {
+					AVLTree<String> tree = new AVLTree<String>();
+					tree.addOrGet(word).setValue(postings);
+					found.append(ParallelIndexerTest.dump(new TreeCursor(tree)));
+				}
+			}
+			assertEquals(ParallelIndexerTest.dump(repository.cursor(laterDrops)), found.toString());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Repository#compact()}
+	 * to leave the postings of dropped files out of the new base.
+	 */
+	@Test
+	public void testCompact_OmitsDroppedPostings() throws IOException {
+		saveAndDrop().compact();
+		Repository reopened = Repository.open(directory);
+		assertEquals(0, reopened.segmentCount());
+		assertEquals("both 1:2 0:9\nkept 1:4\nnew 0:8\n", contents(reopened));
+		assertFalse(Files.exists(directory.resolve("seg-0000000001.idx")));
+		assertFalse(Files.exists(directory.resolve("seg-0000000002.idx")));
+
+		RepositoryIndex base = RepositoryIndex.open(directory.resolve("base-0000000002.idx"));
+		assertEquals(3, base.wordCount());
+		assertTrue(base.droppedFiles().isEmpty());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Repository#open(Path)}
+	 * to delete a temporary file left by an interrupted save and read the
+	 * files that were committed before it.
+	 */
+	@Test
+	public void testOpen_DiscardsTemporaryFile() throws IOException {
+		Repository.open(directory).append(words("word 0:1"), FILES, new BitSet());
+		Path stale = directory.resolve("seg-0000000002.idx.tmp");
+		Files.write(stale, new byte[] {1, 2, 3});
+
+		Repository reopened = Repository.open(directory);
+		assertFalse(Files.exists(stale));
+		assertEquals("word 0:1\n", contents(reopened));
+
+		// The next save takes the generation the interrupted one was writing.
+		reopened.append(words("word 1:5"), FILES, new BitSet());
+		assertTrue(Files.exists(directory.resolve("seg-0000000002.idx")));
+		assertEquals("word 0:1 1:5\n", contents(Repository.open(directory)));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Repository#open(Path)}
+	 * to delete segments and bases that a newer base already holds, as a
+	 * compaction interrupted before it deleted them leaves behind, instead of
+	 * reading their postings twice.
+	 */
+	@Test
+	public void testOpen_DiscardsCompactedFiles() throws IOException {
+		Repository repository = Repository.open(directory);
+		repository.append(words("word 0:1"), FILES, new BitSet());
+		repository.compact();
+		repository.append(words("word 1:2"), FILES, new BitSet());
+		Path segment = directory.resolve("seg-0000000002.idx");
+		Path leftover = folder.getRoot().toPath().resolve("leftover.idx");
+		Files.copy(segment, leftover);
+		repository.compact();
+
+		Path oldBase = directory.resolve("base-0000000001.idx");
+		Files.copy(leftover, segment);
+		Files.copy(leftover, oldBase);
+
+		Repository reopened = Repository.open(directory);
+		assertEquals(0, reopened.segmentCount());
+		assertEquals("word 0:1 1:2\n", contents(reopened));
+		assertFalse(Files.exists(segment));
+		assertFalse(Files.exists(oldBase));
+		assertTrue(Files.exists(directory.resolve("base-0000000002.idx")));
+	}
+}
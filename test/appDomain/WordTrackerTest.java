@@ -0,0 +1,223 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Class Description:
+ * Writes reports and query results of the same index on one thread and on
+ * several, from words added in this run, from a saved repository, and from
+ * both with a file dropped, and checks that they are identical.
+ */
+
+public class WordTrackerTest {
+	// Attributes
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String[] OPTIONS = {"-pf", "-pl", "-po"};
+	private static final String[] QUERIES = {"..", "w1*", "w2..w5", "w3..", "..w4", "w17", "missing"};
+
+	private Path repository;
+	private List<String> files;
+
+	/**
+	 * Writes a few files of a few hundred distinct words, more than enough to
+	 * split a report into ranges for every thread count tested.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		repository = folder.getRoot().toPath().resolve("repository");
+		files = new ArrayList<>();
+		Random random = new Random(11);
+		for (int i = 0; i < 4; i++) {
+			StringBuilder text = new StringBuilder();
+			for (int line = 0; line < 300; line++) {
+				for (int j = random.nextInt(6); j > 0; j--) {
+					text.append('w').append(random.nextInt(800)).append(' ');
+				}
+				text.append(line % 2 == 0 ? "\n" : "\r\n");
+			}
+			files.add(write("file" + i + ".txt", text.toString()));
+		}
+	}
+
+	private String write(String name, String text) throws IOException {
+		Path file = folder.getRoot().toPath().resolve(name);
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+		return file.toString();
+	}
+
+	private String query(WordTracker tracker, String query, String option, int threads) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ReportWriter report = new ReportWriter(bytes)) {
+			tracker.query(query, option, report, threads);
+		}
+		return new String(bytes.toByteArray(), Charset.defaultCharset());
+	}
+
+	private String report(WordTracker tracker, String option, int threads) throws IOException {
+		Path output = folder.getRoot().toPath().resolve("report-" + threads + ".txt");
+		tracker.generateReport(option, output.toString(), threads);
+		return new String(Files.readAllBytes(output), Charset.defaultCharset());
+	}
+
+	private void assertSameOnEveryThreadCount(WordTracker tracker) throws IOException {
+		for (String option : OPTIONS) {
+			String expected = report(tracker, option, 1);
+			assertTrue(expected.length() > 0);
+			for (int threads : new int[] {2, 3, 8}) {
+				assertEquals(option + " on " + threads + " threads", expected, report(tracker, option, threads));
+			}
+			for (String query : QUERIES) {
+				String sequential = query(tracker, query, option, 1);
+				for (int threads : new int[] {2, 3, 8}) {
+					assertEquals(query + " " + option + " on " + threads + " threads", sequential, query(tracker, query, option, threads));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#generateReport(String, String, int)}
+	 * to write the same report on any number of threads from words that have
+	 * not been saved.
+	 */
+	@Test
+	public void testReport_Unsaved() throws IOException {
+		WordTracker tracker = new WordTracker(false, repository);
+		tracker.processFiles(files, 1);
+		assertSameOnEveryThreadCount(tracker);
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#close()}
+	 * to release an off-heap tracker after it has written the same report as
+	 * a tracker on the heap.
+	 */
+	@Test
+	public void testClose_OffHeap() throws IOException {
+		WordTracker heap = new WordTracker(false, repository);
+		heap.processFiles(files, 1);
+		try (WordTracker offHeap = new WordTracker(true, repository)) {
+			offHeap.processFiles(files, 1);
+			assertEquals(report(heap, "-po", 1), report(offHeap, "-po", 1));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#generateReport(String, String, int)}
+	 * to write the same report on any number of threads from a reopened
+	 * repository, and from the repository with more words added and a file
+	 * dropped since it was saved.
+	 */
+	@Test
+	public void testReport_Saved() throws IOException {
+		WordTracker tracker = new WordTracker(false, repository);
+		tracker.processFiles(files.subList(0, 3), 1);
+		tracker.saveRepository();
+
+		tracker = new WordTracker(false, repository);
+		String before = report(tracker, "-po", 1);
+		assertSameOnEveryThreadCount(tracker);
+
+		tracker.processFiles(files.subList(3, 4), 1);
+		assertTrue(tracker.dropFile(files.get(1)));
+		assertSameOnEveryThreadCount(tracker);
+		assertFalse(report(tracker, "-po", 1).equals(before));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#query(String, String, String, int)}
+	 * to report a single word, a prefix and a range exactly.
+	 */
+	@Test
+	public void testQuery() throws IOException {
+		List<String> two = Arrays.asList(write("a.txt", "Apple pie\nand apples\r\napple\n"), write("b.txt", "banana\rapple"));
+		WordTracker tracker = new WordTracker(false, repository);
+		tracker.processFiles(two, 1);
+		String n = System.lineSeparator();
+		assertEquals("apple: " + two.get(0) + " (2 occurrences at lines [1, 3]), " + two.get(1) + " (1 occurrences at lines [2]), " + n,
+			query(tracker, "APPLE", "-po", 1));
+		assertEquals("apple: [" + two.get(0) + ", " + two.get(1) + "]" + n + "apples: [" + two.get(0) + "]" + n,
+			query(tracker, "app*", "-pf", 1));
+		assertEquals("and: " + two.get(0) + " (lines [2]), " + n + "apple: " + two.get(0) + " (lines [1, 3]), " + two.get(1) + " (lines [2]), " + n,
+			query(tracker, "and..apples", "-pl", 1));
+		assertEquals("", query(tracker, "cherry", "-po", 1));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#setLookupCacheCapacity(int)}
+	 * to answer repeated single-word queries from the cache, evict the least
+	 * recently queried word, add words not yet saved to cached postings, and
+	 * start over after each drop, save and compaction.
+	 */
+	@Test
+	public void testQuery_LookupCache() throws IOException {
+		String a = write("a.txt", "apple pie\napple\n");
+		String b = write("b.txt", "banana\napple\n");
+		String c = write("c.txt", "apple\n");
+		WordTracker tracker = new WordTracker(false, repository);
+		tracker.processFiles(Arrays.asList(a, b), 1);
+		tracker.saveRepository();
+		tracker.setLookupCacheCapacity(2);
+		String n = System.lineSeparator();
+		String apple = "apple: " + a + " (lines [1, 2]), " + b + " (lines [2]), " + n;
+		assertEquals(apple, query(tracker, "apple", "-pl", 1));
+		assertEquals(apple, query(tracker, "apple", "-pl", 1));
+		assertEquals("", query(tracker, "cherry", "-pl", 1));
+		assertEquals("", query(tracker, "cherry", "-pl", 1));
+		assertEquals(2, tracker.getLookupCacheHits());
+		assertEquals(2, tracker.getLookupCacheMisses());
+		assertEquals("pie: " + a + " (lines [1]), " + n, query(tracker, "pie", "-pl", 1));
+		assertEquals(apple, query(tracker, "apple", "-pl", 1));
+		assertEquals(2, tracker.getLookupCacheHits());
+		assertEquals(4, tracker.getLookupCacheMisses());
+
+		tracker.processFile(c);
+		String added = "apple: " + a + " (lines [1, 2]), " + b + " (lines [2]), " + c + " (lines [1]), " + n;
+		assertEquals(added, query(tracker, "apple", "-pl", 1));
+		assertEquals(added, query(tracker, "apple", "-pl", 1));
+		assertEquals(4, tracker.getLookupCacheHits());
+
+		assertTrue(tracker.dropFile(a));
+		String dropped = "apple: " + b + " (lines [2]), " + c + " (lines [1]), " + n;
+		assertEquals(dropped, query(tracker, "apple", "-pl", 1));
+		tracker.saveRepository();
+		assertEquals(dropped, query(tracker, "apple", "-pl", 1));
+		tracker.compactRepository();
+		assertEquals(dropped, query(tracker, "apple", "-pl", 1));
+		assertEquals(4, tracker.getLookupCacheHits());
+		assertEquals(7, tracker.getLookupCacheMisses());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#setLookupCacheCapacity(int)}
+	 * to throw IllegalArgumentException for a negative capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetLookupCacheCapacity_IllegalArgumentException() {
+		new WordTracker(false, repository).setLookupCacheCapacity(-1);
+	}
+}
@@ -0,0 +1,241 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.AVLTree;
+
+/**
+ * Class Description:
+ * Tests for the self-balancing AVL variant of the BSTreeADT.
+ */
+
+public class AVLTreeTest {
+	// Attributes
+	private AVLTree<Integer> tree;
+
+	/**
+	 * Initializes a new AVLTree instance before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new AVLTree<Integer>();
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		tree = null;
+	}
+
+	/**
+	 * Largest height an AVL tree holding n elements can reach.
+	 */
+	private static int maxAvlHeight(int n) {
+		return (int) Math.floor(1.4405 * Math.log(n + 2) / Math.log(2) - 0.3277);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#add(java.lang.Comparable)}
+	 * to keep the height logarithmic when sorted input is added.
+	 */
+	@Test
+	public void testAdd_SortedStringsStayBalanced() {
+		AVLTree<String> words = new AVLTree<String>();
+		int count = 1000000;
+		for (int i = 0; i < count; i++) {
+			// fixed-width numbers so the strings arrive in ascending order
+			assertTrue(words.add(String.valueOf(count + i)));
+		}
+
+		assertEquals("Failed to update size correctly.", count, words.size());
+		assertTrue("Height " + words.getHeight() + " is not logarithmic.",
+				words.getHeight() <= maxAvlHeight(count));
+		assertTrue("Failed to find the last element.", words.contains(String.valueOf(2 * count - 1)));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#add(java.lang.Comparable)}
+	 * to rotate a right-leaning chain into a balanced tree.
+	 */
+	@Test
+	public void testAdd_RotatesRoot() {
+		tree.add(11);
+		tree.add(22);
+		tree.add(33);
+
+		assertEquals("Failed to rotate the root.", 22, (int) tree.getRoot().getElement());
+		assertEquals("Failed to update height correctly.", 2, tree.getHeight());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#add(java.lang.Comparable)}
+	 * to reject a duplicate element.
+	 */
+	@Test
+	public void testAdd_Duplicate() {
+		assertTrue(tree.add(11));
+		assertFalse("Failed to reject duplicate.", tree.add(11));
+		assertEquals("Failed to keep size.", 1, tree.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#add(java.lang.Comparable)}
+	 * to throw a NullPointerException when passing a null.
+	 */
+	@Test
+	public void testAdd_NullPointerException() {
+		try {
+			tree.add(null);
+			fail("Add method failed to throw NullPointerException.");
+		} catch (NullPointerException e) {
+			assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#removeMin()} and
+	 * {@link implementations.AVLTree#removeMax()}
+	 * to keep the tree ordered and balanced while draining it.
+	 */
+	@Test
+	public void testRemoveMinMax_StayBalanced() {
+		int count = 10000;
+		for (int i = 0; i < count; i++) {
+			tree.add(i);
+		}
+		for (int i = 0; i < count / 2; i++) {
+			assertEquals("Failed to remove minimum value.", i, (int) tree.removeMin().getElement());
+			assertEquals("Failed to remove maximum value.", count - 1 - i, (int) tree.removeMax().getElement());
+			assertTrue("Height is not logarithmic.", tree.getHeight() <= maxAvlHeight(tree.size()));
+		}
+		assertTrue("Failed to empty the tree.", tree.isEmpty());
+		assertNull("Failed to return null.", tree.removeMin());
+		assertNull("Failed to return null.", tree.removeMax());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#inorderIterator()}
+	 * to return the elements in natural order after rotations.
+	 */
+	@Test
+	public void testInorderIterator() {
+		for (int i = 100; i > 0; i--) {
+			tree.add(i);
+		}
+
+		Iterator<Integer> it = tree.inorderIterator();
+		int expected = 1;
+		while (it.hasNext()) {
+			assertEquals("Failed to return the correct in-order iterator.", expected++, (int) it.next());
+		}
+		assertEquals("Failed to visit every element.", 101, expected);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#fromSorted(java.lang.Comparable[])}
+	 * to build a perfectly balanced tree that still accepts new elements.
+	 */
+	@Test
+	public void testFromSorted() {
+		Integer[] sorted = new Integer[1000];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i * 2;
+		}
+		AVLTree<Integer> built = AVLTree.fromSorted(sorted);
+
+		assertEquals("Failed to update size correctly.", 1000, built.size());
+		assertEquals("Failed to build a perfectly balanced tree.", 10, built.getHeight());
+		assertTrue("Failed to find an element.", built.contains(998));
+		assertFalse("Failed to return false.", built.contains(999));
+
+		Iterator<Integer> it = built.inorderIterator();
+		for (int i = 0; i < sorted.length; i++) {
+			assertEquals("Failed to keep the elements in order.", sorted[i], it.next());
+		}
+
+		assertTrue(built.add(999));
+		assertTrue("Height is not logarithmic.", built.getHeight() <= maxAvlHeight(built.size()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.AVLTree#fromSorted(java.lang.Comparable[])}
+	 * to return an empty tree for an empty array.
+	 */
+	@Test
+	public void testFromSorted_Empty() {
+		AVLTree<Integer> built = AVLTree.fromSorted(new Integer[0]);
+		assertTrue("Failed to return true.", built.isEmpty());
+		assertEquals("Failed to return correct height.", 0, built.getHeight());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#select(int)} and
+	 * {@link implementations.BSTree#rank(Comparable)}
+	 * to use subtree sizes that survive rotations.
+	 */
+	@Test
+	public void testOrderStatisticsAfterRotations() {
+		int count = 10000;
+		for (int i = count - 1; i >= 0; i--) {
+			tree.add(i);
+		}
+		for (int i = 0; i < count / 4; i++) {
+			tree.removeMin();
+			tree.removeMax();
+		}
+		int first = count / 4;
+		for (int i = 0; i < tree.size(); i++) {
+			assertEquals("Failed to select the correct element.", first + i, (int) tree.select(i).getElement());
+			assertEquals("Failed to rank the element.", i, tree.rank(first + i));
+		}
+		assertEquals(tree.size(), tree.getRoot().getSize());
+		assertEquals(100, tree.countRange(first, first + 100));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#remove(Comparable)}
+	 * to keep the tree balanced and its elements in order.
+	 */
+	@Test
+	public void testRemove_StaysBalanced() {
+		int count = 20000;
+		for (int i = 0; i < count; i++) {
+			tree.add(i);
+		}
+		// Removing every other element, then most of the rest, exercises all
+		// three removal cases together with rotations.
+		for (int i = 0; i < count; i += 2) {
+			assertEquals("Failed to remove the element.", i, (int) tree.remove(i).getElement());
+		}
+		assertTrue("Height is not logarithmic.", tree.getHeight() <= maxAvlHeight(tree.size()));
+		for (int i = 1; i < count - 200; i += 2) {
+			tree.remove(i);
+			assertTrue("Height is not logarithmic.", tree.getHeight() <= maxAvlHeight(tree.size()));
+		}
+		assertEquals(100, tree.size());
+		assertEquals(100, tree.getRoot().getSize());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(count - 199 + 2 * i, (int) tree.select(i).getElement());
+		}
+	}
+}
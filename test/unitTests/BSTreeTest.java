@@ -2,6 +2,14 @@ package unitTests;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -94,7 +102,7 @@ public class BSTreeTest {
 
 		assertEquals("Failed to add item correctly to root.", expected, actual);
 		assertEquals("Size of tree should be ", 1, newTree.size());
-		assertEquals("Height of tree should be ", 1, tree.getHeight());
+		assertEquals("Height of tree should be ", 1, newTree.getHeight());
 	}
 
 	/**
@@ -182,6 +190,24 @@ public class BSTreeTest {
 		}
 	}
 
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#addOrGet(java.lang.Comparable)}
+	 * to insert a missing element once and return the same node afterwards.
+	 */
+	@Test
+	public void testAddOrGet() {
+		tree.add(four);
+		BSTreeNode<Integer> added = tree.addOrGet(two);
+		added.setValue("value");
+
+		assertEquals("Failed to add element correctly.", two, added.getElement());
+		assertEquals("Failed to update size correctly.", 2, tree.size());
+		assertSame("Failed to return the existing node.", added, tree.addOrGet(two));
+		assertEquals("Failed to keep the node value.", "value", tree.search(two).getValue());
+		assertEquals("Failed to keep size.", 2, tree.size());
+	}
+
 	/**
 	 * Test method for 
 	 * {@link implementations.BSTree#clear()}
@@ -500,6 +526,48 @@ public class BSTreeTest {
 		assertEquals("Preorder iterator is out of order ", true, actual);
 	}
 
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#inorderIterator()}
+	 * to fail fast when the tree is modified during iteration.
+	 */
+	@Test
+	public void testIterator_ConcurrentModification() {
+		tree.add(four);
+		tree.add(two);
+		tree.add(six);
+
+		Iterator<Integer> it = tree.inorderIterator();
+		assertEquals("Failed to return the first element.", two, it.next());
+		tree.add(one);
+		try {
+			it.next();
+			fail("Failed to throw ConcurrentModificationException.");
+		} catch (ConcurrentModificationException e) {
+			assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#postorderIterator()}
+	 * to throw NoSuchElementException once the iteration is exhausted.
+	 */
+	@Test
+	public void testIterator_NoSuchElementException() {
+		tree.add(four);
+
+		Iterator<Integer> it = tree.postorderIterator();
+		assertEquals("Failed to return the only element.", four, it.next());
+		assertFalse(it.hasNext());
+		try {
+			it.next();
+			fail("Failed to throw NoSuchElementException.");
+		} catch (NoSuchElementException e) {
+			assertTrue(true);
+		}
+	}
+
 	/**
 	 * Test method for 
 	 * {@link implementations.BSTree#size()}
@@ -578,4 +646,300 @@ public class BSTreeTest {
 	public void testRemoveMaxNull() {
 		assertNull("Failed to return maximum value.", tree.removeMax());
 	}
+
+	/**
+	 * Test method for every operation of {@link implementations.BSTree} on a
+	 * degenerate tree deep enough to overflow a recursive implementation.
+	 * Ascending keys make insertion quadratic, so the key count is kept to a
+	 * depth several times past where the recursive version overflowed.
+	 */
+	@Test
+	public void testDegenerateTree_NoStackOverflow() {
+		int count = 50000;
+		for (int i = 0; i < count; i++) {
+			assertTrue(tree.add(i));
+		}
+
+		assertEquals("Failed to update size correctly.", count, tree.size());
+		assertEquals("Failed to return correct height.", count, tree.getHeight());
+		assertFalse("Failed to reject duplicate.", tree.add(count - 1));
+		assertTrue("Failed to return true.", tree.contains(count - 1));
+		assertFalse("Failed to return false.", tree.contains(count));
+		assertEquals("Failed to return the correct element.", count - 1, (int) tree.search(count - 1).getElement());
+
+		Iterator<Integer> in = tree.inorderIterator();
+		Iterator<Integer> pre = tree.preorderIterator();
+		Iterator<Integer> post = tree.postorderIterator();
+		for (int i = 0; i < count; i++) {
+			assertEquals("In-order iterator is out of order ", i, (int) in.next());
+			assertEquals("Pre-order iterator is out of order ", i, (int) pre.next());
+			assertEquals("Post-order iterator is out of order ", count - 1 - i, (int) post.next());
+		}
+		assertFalse(in.hasNext());
+		assertFalse(pre.hasNext());
+		assertFalse(post.hasNext());
+
+		assertEquals("Failed to remove the maximum value.", count - 1, (int) tree.removeMax().getElement());
+		assertEquals("Failed to remove minimum value.", 0, (int) tree.removeMin().getElement());
+		assertEquals("Failed to update size.", count - 2, tree.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#select(int)}, {@link implementations.BSTree#rank(java.lang.Comparable)}
+	 * and {@link implementations.BSTree#countRange(java.lang.Comparable, java.lang.Comparable)}
+	 * to find elements by position, positions by element, and the size of a
+	 * range, before and after removals.
+	 */
+	@Test
+	public void testOrderStatistics() {
+		Random random = new Random(7);
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			values.add(i * 2);
+		}
+		Collections.shuffle(values, random);
+		for (int value : values) {
+			tree.add(value);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals("Failed to select the correct element.", i * 2, (int) tree.select(i).getElement());
+			assertEquals("Failed to rank an element in the tree.", i, tree.rank(i * 2));
+			assertEquals("Failed to rank an element not in the tree.", i + 1, tree.rank(i * 2 + 1));
+		}
+		assertEquals(0, tree.rank(-5));
+		assertEquals(1000, tree.rank(5000));
+		assertEquals("Failed to count a range.", 50, tree.countRange(100, 200));
+		assertEquals("Failed to count a range.", 50, tree.countRange(99, 199));
+		assertEquals("Failed to count an empty range.", 0, tree.countRange(200, 100));
+
+		tree.removeMin();
+		tree.removeMax();
+		assertEquals(2, (int) tree.select(0).getElement());
+		assertEquals(1996, (int) tree.select(997).getElement());
+		assertEquals(0, tree.rank(2));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#select(int)}
+	 * to throw IndexOutOfBoundsException for a position past the last element.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testSelect_IndexOutOfBoundsException() {
+		tree.add(1);
+		tree.select(1);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#add(java.lang.Comparable)}
+	 * to keep the subtree size and height of every node correct through
+	 * random additions and removals.
+	 */
+	@Test
+	public void testSizesAndHeightsKeptOnNodes() {
+		Random random = new Random(11);
+		for (int i = 0; i < 2000; i++) {
+			int operation = random.nextInt(10);
+			if (operation == 0) {
+				tree.removeMin();
+			} else if (operation == 1) {
+				tree.removeMax();
+			} else {
+				tree.add(random.nextInt(1000));
+			}
+			if (!tree.isEmpty()) {
+				assertEquals("Root size does not match size().", tree.size(), tree.getRoot().getSize());
+			}
+		}
+		assertEquals(tree.size(), checkNode(tree.getRoot()));
+	}
+
+	/**
+	 * Checks the size and height of every node below node.
+	 *
+	 * @return the size of the subtree
+	 */
+	private static int checkNode(BSTreeNode<Integer> node) {
+		if (node == null) {
+			return 0;
+		}
+		int size = 1 + checkNode(node.getLeft()) + checkNode(node.getRight());
+		int leftHeight = node.getLeft() == null ? 0 : node.getLeft().getHeight();
+		int rightHeight = node.getRight() == null ? 0 : node.getRight().getHeight();
+		assertEquals("Wrong subtree size.", size, node.getSize());
+		assertEquals("Wrong subtree height.", 1 + Math.max(leftHeight, rightHeight), node.getHeight());
+		return size;
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#floor(java.lang.Comparable)} and
+	 * {@link implementations.BSTree#ceiling(java.lang.Comparable)}
+	 * to return the nearest element at or below and at or above a value.
+	 */
+	@Test
+	public void testFloorAndCeiling() {
+		for (int i = 0; i < 100; i++) {
+			tree.add(i * 10);
+		}
+		assertEquals("Failed to find the floor.", 50, (int) tree.floor(55).getElement());
+		assertEquals("Failed to find an exact floor.", 50, (int) tree.floor(50).getElement());
+		assertNull("Failed to return null below the smallest.", tree.floor(-1));
+		assertEquals("Failed to find the ceiling.", 60, (int) tree.ceiling(55).getElement());
+		assertEquals("Failed to find an exact ceiling.", 50, (int) tree.ceiling(50).getElement());
+		assertNull("Failed to return null above the largest.", tree.ceiling(991));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#rangeIterator(java.lang.Comparable, java.lang.Comparable)}
+	 * to return the elements from the lower bound up to but not including the
+	 * upper bound, in order.
+	 */
+	@Test
+	public void testRangeIterator() {
+		for (int i = 99; i >= 0; i--) {
+			tree.add(i);
+		}
+		Iterator<Integer> range = tree.rangeIterator(25, 30);
+		for (int i = 25; i < 30; i++) {
+			assertEquals("Range iterator is out of order ", i, (int) range.next());
+		}
+		assertFalse("Range iterator went past the upper bound.", range.hasNext());
+
+		Iterator<Integer> tail = tree.rangeIterator(95, null);
+		int count = 0;
+		while (tail.hasNext()) {
+			assertEquals(95 + count++, (int) tail.next());
+		}
+		assertEquals(5, count);
+		assertFalse("Empty range returned elements.", tree.rangeIterator(30, 30).hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#rangeIterator(java.lang.Comparable, java.lang.Comparable)}
+	 * to throw NoSuchElementException past the end of the range.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testRangeIterator_NoSuchElementException() {
+		tree.add(1);
+		tree.add(5);
+		Iterator<Integer> range = tree.rangeIterator(0, 5);
+		range.next();
+		range.next();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#prefixIterator(String)}
+	 * to return only the words starting with the prefix, in order.
+	 */
+	@Test
+	public void testPrefixIterator() {
+		BSTree<String> words = new BSTree<String>();
+		for (String word : new String[] {"inter", "internal", "interval", "intern", "into", "in", "integer", "zebra", "inte"}) {
+			words.add(word);
+		}
+		Iterator<String> prefix = words.prefixIterator("inter");
+		assertEquals("inter", prefix.next());
+		assertEquals("intern", prefix.next());
+		assertEquals("internal", prefix.next());
+		assertEquals("interval", prefix.next());
+		assertFalse("Prefix iterator returned a non-matching word.", prefix.hasNext());
+		assertFalse(words.prefixIterator("q").hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#prefixEnd(String)}
+	 * to return the smallest String after every String with the prefix.
+	 */
+	@Test
+	public void testPrefixEnd() {
+		assertEquals("intes", BSTree.prefixEnd("inter"));
+		assertEquals("b", BSTree.prefixEnd("a\uffff"));
+		assertTrue("Failed to bound a word with the prefix.", "interzzz".compareTo(BSTree.prefixEnd("inter")) < 0);
+		assertNull("Failed to return null with no bound.", BSTree.prefixEnd("\uffff\uffff"));
+		assertNull(BSTree.prefixEnd(""));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#remove(java.lang.Comparable)}
+	 * to remove leaves, nodes with one or two children and the root, keeping
+	 * each value with its element.
+	 */
+	@Test
+	public void testRemove() {
+		for (int value : new int[] {50, 30, 70, 20, 40, 60, 80, 35, 45, 65}) {
+			tree.add(value);
+			tree.search(value).setValue("v" + value);
+		}
+		assertEquals("Failed to remove a leaf.", 20, (int) tree.remove(20).getElement());
+		assertEquals("Failed to remove a node with one child.", 60, (int) tree.remove(60).getElement());
+		assertEquals("Failed to remove a node with two children.", 30, (int) tree.remove(30).getElement());
+		assertEquals("Failed to remove the root.", 50, (int) tree.remove(50).getElement());
+		assertNull("Failed to return null for a missing element.", tree.remove(50));
+		assertEquals(6, tree.size());
+
+		int[] expected = {35, 40, 45, 65, 70, 80};
+		Iterator<Integer> it = tree.inorderIterator();
+		for (int value : expected) {
+			assertEquals(value, (int) it.next());
+			assertEquals("Value did not stay with its element.", "v" + value, tree.search(value).getValue());
+		}
+		assertEquals(tree.size(), checkNode(tree.getRoot()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#removeAll(java.lang.Iterable)}
+	 * to leave the same elements as a TreeSet after random additions and
+	 * removals.
+	 */
+	@Test
+	public void testRemoveAllMatchesTreeSet() {
+		Random random = new Random(3);
+		TreeSet<Integer> expected = new TreeSet<>();
+		for (int i = 0; i < 2000; i++) {
+			int value = random.nextInt(500);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(value), tree.remove(value) != null);
+			} else {
+				assertEquals(expected.add(value), tree.add(value));
+			}
+		}
+		List<Integer> some = new ArrayList<>();
+		for (int i = 0; i < 500; i += 3) {
+			some.add(i);
+		}
+		int removed = 0;
+		for (int value : some) {
+			if (expected.remove(value)) {
+				removed++;
+			}
+		}
+		assertEquals(removed, tree.removeAll(some));
+
+		assertEquals(expected.size(), tree.size());
+		Iterator<Integer> it = tree.inorderIterator();
+		for (int value : expected) {
+			assertEquals(value, (int) it.next());
+		}
+		assertEquals(tree.size(), checkNode(tree.getRoot()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#remove(java.lang.Comparable)}
+	 * to throw NullPointerException for a null element.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testRemove_NullPointerException() {
+		tree.remove(null);
+	}
 }
@@ -0,0 +1,233 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.BSTreeNode;
+import implementations.ConcurrentBSTree;
+
+/**
+ * Class Description:
+ * Tests for the thread-safe BSTreeADT, including a stress test with many
+ * writer and reader threads that checks every observation could have come
+ * from some sequential order of the operations.
+ */
+
+public class ConcurrentBSTreeTest {
+	// Attributes
+	private static final int WRITERS = 4;
+	private static final int READERS = 4;
+	private static final int PER_WRITER = 20000;
+
+	private ConcurrentBSTree<Integer> tree;
+
+	@Before
+	public void setUp() throws Exception {
+		tree = new ConcurrentBSTree<Integer>();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ConcurrentBSTree}
+	 * to behave as a balanced tree when used from a single thread.
+	 */
+	@Test
+	public void testSequentialBehaviour() {
+		assertTrue(tree.isEmpty());
+		assertNull(tree.removeMin());
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(tree.add(i));
+		}
+		assertFalse(tree.add(500));
+		assertEquals(1000, tree.size());
+		assertTrue(tree.getHeight() <= 11);
+		assertEquals(Integer.valueOf(0), tree.removeMin().getElement());
+		assertEquals(Integer.valueOf(999), tree.removeMax().getElement());
+		assertEquals(998, tree.size());
+		assertTrue(tree.contains(1));
+		assertFalse(tree.contains(0));
+		assertEquals(Integer.valueOf(42), tree.search(42).getElement());
+		tree.clear();
+		assertTrue(tree.isEmpty());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ConcurrentBSTree#add(java.lang.Comparable)}
+	 * to throw NullPointerException for a null element.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAdd_NullPointerException() {
+		tree.add(null);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ConcurrentBSTree#inorderIterator()}
+	 * to keep returning the elements present when it was created.
+	 */
+	@Test
+	public void testIteratorIsSnapshot() {
+		for (int i = 0; i < 10; i++) {
+			tree.add(i * 2);
+		}
+		Iterator<Integer> iterator = tree.inorderIterator();
+		tree.add(5);
+		tree.removeMin();
+		tree.clear();
+		int expected = 0;
+		while (iterator.hasNext()) {
+			assertEquals(Integer.valueOf(expected), iterator.next());
+			expected += 2;
+		}
+		assertEquals(20, expected);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ConcurrentBSTree#add(java.lang.Comparable)}
+	 * to make each added element visible to every later read while other
+	 * threads add and read at once.
+	 */
+	@Test
+	public void testConcurrentAddAndRead() throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		List<Thread> writers = new ArrayList<>();
+		List<Thread> readers = new ArrayList<>();
+
+		for (int w = 0; w < WRITERS; w++) {
+			final int writer = w;
+			writers.add(new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < PER_WRITER; i++) {
+						int value = i * WRITERS + writer;
+						assertTrue(tree.add(value));
+						// Once add returns, every later read must see it.
+						assertTrue(tree.contains(value));
+						assertTrue(tree.size() >= i + 1);
+					}
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}));
+		}
+		for (int r = 0; r < READERS; r++) {
+			final int seed = r;
+			readers.add(new Thread(() -> {
+				try {
+					start.await();
+					int lastSize = 0;
+					int probe = seed;
+					while (writing.get()) {
+						// Only adds are running, so size never goes down.
+						int size = tree.size();
+						assertTrue(size >= lastSize);
+						lastSize = size;
+
+						// Each writer adds its values in increasing order, so if a
+						// value is visible its writer's earlier values must be too.
+						probe = (probe * 1103515245 + 12345) & 0x7fffffff;
+						int value = probe % (WRITERS * PER_WRITER);
+						if (tree.contains(value)) {
+							for (int earlier = value - WRITERS; earlier >= 0 && earlier > value - 50 * WRITERS; earlier -= WRITERS) {
+								assertTrue(tree.contains(earlier));
+							}
+						}
+
+						// A snapshot holds at least everything added before it was
+						// taken and at most everything added by the end.
+						int before = tree.size();
+						Iterator<Integer> iterator = tree.inorderIterator();
+						int count = 0;
+						int previous = -1;
+						while (iterator.hasNext()) {
+							int element = iterator.next();
+							assertTrue(element > previous);
+							previous = element;
+							count++;
+						}
+						assertTrue(count >= before);
+						assertTrue(count <= tree.size());
+					}
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}));
+		}
+
+		for (Thread thread : readers) {
+			thread.start();
+		}
+		for (Thread thread : writers) {
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : writers) {
+			thread.join();
+		}
+		writing.set(false);
+		for (Thread thread : readers) {
+			thread.join();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+
+		assertEquals(WRITERS * PER_WRITER, tree.size());
+		for (int i = 0; i < WRITERS * PER_WRITER; i++) {
+			assertTrue(tree.contains(i));
+		}
+		// 1.44 log2(80000) is about 23.5.
+		assertTrue(tree.getHeight() <= 24);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ConcurrentBSTree#removeMin()} and
+	 * {@link implementations.ConcurrentBSTree#removeMax()}
+	 * to hand each element to exactly one of several removing threads.
+	 */
+	@Test
+	public void testConcurrentRemoveReturnsEachElementOnce() throws Exception {
+		final int count = WRITERS * PER_WRITER;
+		for (int i = 0; i < count; i++) {
+			tree.add(i);
+		}
+		final ConcurrentLinkedQueue<Integer> removed = new ConcurrentLinkedQueue<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < WRITERS; t++) {
+			final boolean fromTop = t % 2 == 0;
+			threads.add(new Thread(() -> {
+				BSTreeNode<Integer> node;
+				while ((node = fromTop ? tree.removeMax() : tree.removeMin()) != null) {
+					removed.add(node.getElement());
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(tree.isEmpty());
+		assertEquals(count, removed.size());
+		boolean[] seen = new boolean[count];
+		for (int element : removed) {
+			assertFalse(seen[element]);
+			seen[element] = true;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.AVLTree;
+import implementations.PackedStringBSTree;
+
+/**
+ * Class Description:
+ * Tests that PackedStringBSTree orders and traverses keys exactly as an
+ * AVLTree of the same Strings does.
+ */
+
+public class PackedStringBSTreeTest {
+
+	private static String randomKey(Random random) {
+		// Mostly ASCII, with some Latin-1, other BMP and surrogate characters
+		// so both key encodings are compared against each other.
+		char[] chars = new char[random.nextInt(6)];
+		for (int i = 0; i < chars.length; i++) {
+			int kind = random.nextInt(10);
+			if (kind < 6) {
+				chars[i] = (char) ('a' + random.nextInt(4));
+			} else if (kind < 8) {
+				chars[i] = (char) (0xE0 + random.nextInt(4));
+			} else if (kind < 9) {
+				chars[i] = (char) (0xFF00 + random.nextInt(4));
+			} else {
+				chars[i] = (char) (0xD800 + random.nextInt(4));
+			}
+		}
+		return new String(chars);
+	}
+
+	private static List<String> toList(Iterator<String> iterator) {
+		List<String> list = new ArrayList<>();
+		while (iterator.hasNext()) {
+			list.add(iterator.next());
+		}
+		return list;
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PackedStringBSTree#add(String)}
+	 * to build the same tree as an AVLTree of the same keys, in every
+	 * traversal order.
+	 */
+	@Test
+	public void testMatchesAVLTree() {
+		Random random = new Random(7);
+		PackedStringBSTree packed = new PackedStringBSTree(1);
+		AVLTree<String> avl = new AVLTree<>();
+		TreeSet<String> expected = new TreeSet<>();
+		for (int i = 0; i < 5000; i++) {
+			String key = randomKey(random);
+			assertEquals(expected.add(key), packed.add(key));
+			avl.add(key);
+		}
+		assertEquals(expected.size(), packed.size());
+		assertEquals(new ArrayList<>(expected), toList(packed.inorderIterator()));
+		assertEquals(toList(avl.preorderIterator()), toList(packed.preorderIterator()));
+		assertEquals(toList(avl.postorderIterator()), toList(packed.postorderIterator()));
+		assertEquals(avl.getHeight(), packed.getHeight());
+		assertEquals(avl.getRoot().getElement(), packed.getRoot().getElement());
+		for (int i = 0; i < 1000; i++) {
+			String key = randomKey(random);
+			assertEquals(expected.contains(key), packed.contains(key));
+			assertEquals(expected.contains(key), packed.search(key) != null);
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PackedStringBSTree#removeMin()} and
+	 * {@link implementations.PackedStringBSTree#removeMax()}
+	 * to remove the smallest and largest keys and stay balanced.
+	 */
+	@Test
+	public void testRemoveMinAndMax() {
+		Random random = new Random(11);
+		PackedStringBSTree packed = new PackedStringBSTree();
+		TreeSet<String> expected = new TreeSet<>();
+		for (int round = 0; round < 20; round++) {
+			for (int i = 0; i < 200; i++) {
+				String key = randomKey(random);
+				assertEquals(expected.add(key), packed.add(key));
+			}
+			for (int i = 0; i < 50 && !expected.isEmpty(); i++) {
+				String removed = random.nextBoolean() ? packed.removeMin().getElement() : packed.removeMax().getElement();
+				assertTrue(removed.equals(expected.first()) || removed.equals(expected.last()));
+				expected.remove(removed);
+			}
+			assertEquals(new ArrayList<>(expected), toList(packed.inorderIterator()));
+			// 1.44 log2(n + 2) bounds the height of an AVL tree.
+			assertTrue(packed.getHeight() <= 1.44 * Math.log(expected.size() + 2) / Math.log(2));
+		}
+		while (!expected.isEmpty()) {
+			assertEquals(expected.pollFirst(), packed.removeMin().getElement());
+		}
+		assertTrue(packed.isEmpty());
+		assertNull(packed.removeMax());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PackedStringBSTree#clear()}
+	 * to empty the tree and leave it ready for new keys.
+	 */
+	@Test
+	public void testClear() {
+		PackedStringBSTree packed = new PackedStringBSTree();
+		packed.add("b");
+		packed.add("a");
+		packed.clear();
+		assertTrue(packed.isEmpty());
+		assertEquals(0, packed.getHeight());
+		assertFalse(packed.contains("a"));
+		assertTrue(packed.add("c"));
+		assertEquals("c", packed.getRoot().getElement());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PackedStringBSTree#add(String)}
+	 * to throw NullPointerException for a null key.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAdd_NullPointerException() {
+		new PackedStringBSTree().add(null);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PackedStringBSTree#getRoot()}
+	 * to throw NullPointerException when the tree is empty.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testGetRoot_NullPointerException() {
+		new PackedStringBSTree().getRoot();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PackedStringBSTree#inorderIterator()}
+	 * to throw ConcurrentModificationException after the tree changes.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterator_ConcurrentModificationException() {
+		PackedStringBSTree packed = new PackedStringBSTree();
+		packed.add("a");
+		packed.add("b");
+		Iterator<String> iterator = packed.inorderIterator();
+		packed.add("c");
+		iterator.next();
+	}
+}
@@ -0,0 +1,146 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.ConcurrentBSTree;
+import implementations.PersistentBSTree;
+
+/**
+ * Class Description:
+ * Tests that every version of a PersistentBSTree stays unchanged and shares
+ * the subtrees it did not modify.
+ */
+
+public class PersistentBSTreeTest {
+
+	private static PersistentBSTree<Integer> range(int from, int to) {
+		PersistentBSTree<Integer> tree = PersistentBSTree.empty();
+		for (int i = from; i < to; i++) {
+			tree = tree.add(i);
+		}
+		return tree;
+	}
+
+	private static void assertContents(PersistentBSTree<Integer> tree, int from, int to) {
+		assertEquals(to - from, tree.size());
+		Iterator<Integer> iterator = tree.inorderIterator();
+		for (int i = from; i < to; i++) {
+			assertEquals(Integer.valueOf(i), iterator.next());
+		}
+		assertFalse(iterator.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#add(java.lang.Comparable)}
+	 * to leave every earlier version of the tree unchanged.
+	 */
+	@Test
+	public void testOldVersionsAreUnchanged() {
+		PersistentBSTree<Integer> empty = PersistentBSTree.empty();
+		PersistentBSTree<Integer> ten = range(0, 10);
+		PersistentBSTree<Integer> eleven = ten.add(10);
+		PersistentBSTree<Integer> nine = eleven.withoutMin().withoutMax();
+
+		assertTrue(empty.isEmpty());
+		assertContents(ten, 0, 10);
+		assertContents(eleven, 0, 11);
+		assertContents(nine, 1, 10);
+		assertFalse(ten.contains(10));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#add(java.lang.Comparable)}
+	 * to return the same version when the element is already present.
+	 */
+	@Test
+	public void testAddExistingReturnsSameVersion() {
+		PersistentBSTree<Integer> tree = range(0, 100);
+		assertSame(tree, tree.add(50));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#add(java.lang.Comparable)}
+	 * to copy only the path to the new element and share the rest.
+	 */
+	@Test
+	public void testAddSharesUntouchedSubtrees() {
+		PersistentBSTree<Integer> tree = range(0, 1000);
+		PersistentBSTree<Integer> added = tree.add(-1);
+		// Adding on the far left copies only the left spine.
+		assertNotSame(tree.getRoot(), added.getRoot());
+		assertSame(tree.getRoot().getRight(), added.getRoot().getRight());
+		assertSame(tree.search(999), added.search(999));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#withoutMin()}
+	 * to keep the tree balanced and its subtree sizes correct.
+	 */
+	@Test
+	public void testStaysBalanced() {
+		PersistentBSTree<Integer> tree = range(0, 100000);
+		// 1.44 log2(100000) is about 23.9.
+		assertTrue(tree.getHeight() <= 24);
+		for (int i = 0; i < 50000; i++) {
+			tree = tree.withoutMin();
+		}
+		assertTrue(tree.getHeight() <= 23);
+		assertContents(tree, 50000, 100000);
+		assertEquals(50000, tree.getRoot().getSize());
+		assertEquals(Integer.valueOf(75000), tree.select(25000).getElement());
+		assertEquals(25000, tree.rank(75000));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#put(java.lang.Comparable, Object)}
+	 * to change a value in the new version only.
+	 */
+	@Test
+	public void testPutReplacesValueInNewVersionOnly() {
+		PersistentBSTree<String> tree = PersistentBSTree.<String>empty().put("a", 1).put("b", 2);
+		PersistentBSTree<String> updated = tree.put("a", 3);
+		assertEquals(2, updated.size());
+		assertEquals(1, tree.search("a").getValue());
+		assertEquals(3, updated.search("a").getValue());
+		assertSame(tree, tree.put("b", tree.search("b").getValue()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#withoutMin()}
+	 * to throw NoSuchElementException when the tree is empty.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testWithoutMin_Empty() {
+		PersistentBSTree.<Integer>empty().withoutMin();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ConcurrentBSTree#snapshot()}
+	 * to return a version that later changes to the tree do not affect.
+	 */
+	@Test
+	public void testConcurrentTreeSnapshot() {
+		ConcurrentBSTree<Integer> tree = new ConcurrentBSTree<>();
+		for (int i = 0; i < 10; i++) {
+			tree.add(i);
+		}
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+		tree.add(10);
+		tree.removeMin();
+		assertContents(snapshot, 0, 10);
+		assertContents(tree.snapshot(), 1, 11);
+	}
+}
@@ -0,0 +1,155 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.Tokenizer;
+
+/**
+ * Class Description:
+ * Checks the Tokenizer against the Scanner and split("\\W+") loop it replaced.
+ */
+
+public class TokenizerTest {
+	// Attributes
+	private Tokenizer tokenizer;
+
+	@Before
+	public void setUp() throws Exception {
+		tokenizer = new Tokenizer();
+	}
+
+	/**
+	 * The tokens of the old processFile loop, as "line:word".
+	 */
+	private static List<String> reference(String text) {
+		List<String> tokens = new ArrayList<>();
+		try (Scanner scanner = new Scanner(text)) {
+			int lineNumber = 0;
+			while (scanner.hasNextLine()) {
+				lineNumber++;
+				for (String word : scanner.nextLine().split("\\W+")) {
+					if (!word.isEmpty()) {
+						tokens.add(lineNumber + ":" + word.toLowerCase(Locale.ROOT));
+					}
+				}
+			}
+		}
+		return tokens;
+	}
+
+	private List<String> tokenize(InputStream in) throws IOException {
+		final List<String> tokens = new ArrayList<>();
+		tokenizer.tokenize(in, (word, line) -> tokens.add(line + ":" + word));
+		return tokens;
+	}
+
+	private void assertMatchesReference(String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		assertEquals(reference(text), tokenize(new ByteArrayInputStream(bytes)));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(InputStream, appDomain.Tokenizer.Sink)}
+	 * to split plain lines into lower-case words.
+	 */
+	@Test
+	public void testSimpleLines() throws IOException {
+		assertMatchesReference("The quick brown fox\njumps over the LAZY dog.\n");
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(InputStream, appDomain.Tokenizer.Sink)}
+	 * to keep digits and underscores in words and split on punctuation.
+	 */
+	@Test
+	public void testPunctuationDigitsAndUnderscores() throws IOException {
+		assertMatchesReference("  --don't stop_me now, 2nd--attempt!!\n\n(42) x_1 __ a-b\n");
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(InputStream, appDomain.Tokenizer.Sink)}
+	 * to count lines ended by every terminator Scanner recognised.
+	 */
+	@Test
+	public void testLineTerminators() throws IOException {
+		assertMatchesReference("one\r\ntwo\rthree\n\nfour\r\rfive\u0085six\u2028seven\u2029eight");
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(InputStream, appDomain.Tokenizer.Sink)}
+	 * to treat every non-ASCII character as a separator.
+	 */
+	@Test
+	public void testNonAsciiSeparatesWords() throws IOException {
+		assertMatchesReference("caf\u00e9 na\u00efve  stra\u00dfe \u20ac5 \u00c2\u0080x \u00a0end\n");
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(InputStream, appDomain.Tokenizer.Sink)}
+	 * to return a word ended by the end of input, and nothing for no input.
+	 */
+	@Test
+	public void testWordAtEndOfInput() throws IOException {
+		assertMatchesReference("last word");
+		assertMatchesReference("");
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(InputStream, appDomain.Tokenizer.Sink)}
+	 * to join words and terminators split across reads.
+	 */
+	@Test
+	public void testAcrossBufferBoundaries() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			text.append("Word").append(i).append(i % 7 == 0 ? "\r\n" : " ");
+		}
+		assertMatchesReference(text.toString());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(byte[], int, int, appDomain.Tokenizer.Sink)}
+	 * to return the number of the last line of a range.
+	 */
+	@Test
+	public void testLineCount() {
+		byte[] bytes = "a\nb\r\nc\n".getBytes(StandardCharsets.UTF_8);
+		assertEquals(4, tokenizer.tokenize(bytes, 0, bytes.length, (word, line) -> { }));
+		assertEquals(2, tokenizer.tokenize(bytes, 2, 3, (word, line) -> { }));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#tokenize(byte[], int, int, appDomain.Tokenizer.Sink)}
+	 * to return the same String each time a word is seen again.
+	 */
+	@Test
+	public void testRepeatedWordsAreInterned() {
+		byte[] bytes = "Alpha beta ALPHA alpha".getBytes(StandardCharsets.UTF_8);
+		final List<String> tokens = new ArrayList<>();
+		tokenizer.tokenize(bytes, 0, bytes.length, (word, line) -> tokens.add(word));
+		assertEquals(4, tokens.size());
+		assertSame(tokens.get(0), tokens.get(2));
+		assertSame(tokens.get(0), tokens.get(3));
+		assertNotSame(tokens.get(0), tokens.get(1));
+	}
+}